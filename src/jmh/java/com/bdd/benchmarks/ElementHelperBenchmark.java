@@ -0,0 +1,214 @@
+package com.bdd.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+
+import com.bdd.utilities.BrowserWaitEngine;
+import com.bdd.utilities.ConfigManager;
+import com.bdd.utilities.ElementData;
+import com.bdd.utilities.ElementHelper;
+
+/**
+ * Baseline timings for the ElementHelper primitives the page objects use,
+ * measured in headless Chrome against the local {@link FixtureServer}.
+ *
+ * Run with: mvn -P benchmarks test-compile exec:exec
+ * Results are written to target/jmh-result.json; pass -Djmh.args="..." to
+ * select benchmarks or change JMH options.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dlog.level=warn")
+public class ElementHelperBenchmark {
+
+	private static final String ADD_TO_TROLLEY = "//button[@data-test='add-to-trolley-button-button']";
+	private static final By PRODUCT_CARDS = By.xpath("//div[@data-test='component-product-card-title']");
+
+	/**
+	 * One fixture server and one headless browser per trial, opened on a page.
+	 */
+	@State(Scope.Benchmark)
+	public abstract static class Browser {
+		FixtureServer server;
+		WebDriver driver;
+		ElementHelper helper;
+
+		@Setup(Level.Trial)
+		public void startBrowser() throws IOException {
+			configure();
+			server = FixtureServer.start();
+			ChromeOptions options = new ChromeOptions();
+			options.addArguments("--headless=new", "--window-size=1366,768", "--disable-gpu", "--no-first-run",
+					"--disable-dev-shm-usage");
+			driver = new ChromeDriver(options);
+			BrowserWaitEngine.installNetworkInstrumentation(driver);
+			driver.get(server.url(page()));
+			helper = new ElementHelper(driver);
+			helper.waitForNetworkIdle();
+		}
+
+		abstract String page();
+
+		/** Apply @Param settings before the helper is built: BrowserWaitEngine
+		 * reads wait.engine once, in its constructor
+		 */
+		void configure() {
+		}
+
+		@TearDown(Level.Trial)
+		public void stopBrowser() {
+			if (driver != null) {
+				driver.quit();
+			}
+			if (server != null) {
+				server.close();
+			}
+		}
+	}
+
+	public static class HomePage extends Browser {
+		WebElement searchBox;
+
+		@Setup(Level.Trial)
+		public void locate() {
+			searchBox = driver.findElement(By.id("searchTerm"));
+		}
+
+		@Override
+		String page() {
+			return "home";
+		}
+	}
+
+	public static class ProductPage extends Browser {
+		@Param({ "browser", "polling" })
+		String waitEngine;
+
+		WebElement productTitle;
+
+		@Override
+		void configure() {
+			System.setProperty("wait.engine", waitEngine);
+			ConfigManager.reload();
+		}
+
+		@Setup(Level.Trial)
+		public void locate() {
+			productTitle = driver.findElement(By.xpath("//span[@data-test='product-title']"));
+		}
+
+		@Override
+		String page() {
+			return "product";
+		}
+	}
+
+	public static class SearchPage extends Browser {
+		@Override
+		String page() {
+			return "search";
+		}
+	}
+
+	public static class PageLoad extends SearchPage {
+		@Param({ "network-idle", "legacy" })
+		String readiness;
+
+		@Override
+		void configure() {
+			System.setProperty("page.readiness", readiness);
+			ConfigManager.reload();
+		}
+	}
+
+	public static class TrolleyPage extends Browser {
+		WebElement quantity;
+		int selections;
+
+		@Setup(Level.Trial)
+		public void locate() {
+			quantity = driver.findElement(By.xpath("//select[@data-e2e='product-quantity']"));
+		}
+
+		@Override
+		String page() {
+			return "trolley";
+		}
+	}
+
+	@Benchmark
+	public WebElement findElement(ProductPage state) {
+		return state.helper.findElement(ADD_TO_TROLLEY);
+	}
+
+	@Benchmark
+	public WebElement waitForElementVisible(ProductPage state) {
+		state.helper.waitForElementVisible(state.productTitle);
+		return state.productTitle;
+	}
+
+	/** Navigation plus readiness detection on a page with a late fetch */
+	@Benchmark
+	public WebDriver waitForPageToLoad(PageLoad state) {
+		state.driver.get(state.server.url("search"));
+		state.helper.waitForPageToLoad();
+		return state.driver;
+	}
+
+	/** One getText command per product card, as the page objects used to do */
+	@Benchmark
+	public List<String> getTextLoop(SearchPage state) {
+		List<String> titles = new ArrayList<>();
+		for (WebElement card : state.driver.findElements(PRODUCT_CARDS)) {
+			titles.add(card.getText());
+		}
+		return titles;
+	}
+
+	/** The same titles in a single script call */
+	@Benchmark
+	public List<String> readAll(SearchPage state) {
+		List<String> titles = new ArrayList<>();
+		for (ElementData card : state.helper.readAll(PRODUCT_CARDS)) {
+			titles.add(card.getText());
+		}
+		return titles;
+	}
+
+	@Benchmark
+	public WebElement clearField(HomePage state) {
+		state.searchBox.sendKeys("kettle");
+		state.helper.clearField(state.searchBox);
+		return state.searchBox;
+	}
+
+	@Benchmark
+	public WebElement selectDropdownByValue(TrolleyPage state) {
+		state.helper.selectDropdownByValue(state.quantity, String.valueOf(state.selections++ % 2 + 2));
+		return state.quantity;
+	}
+}
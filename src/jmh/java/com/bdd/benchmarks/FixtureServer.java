@@ -0,0 +1,113 @@
+package com.bdd.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Embedded HTTP server for the static fixture copies of the home, search,
+ * product and trolley pages, so benchmarks run without internet access.
+ *
+ * The /api/* endpoints answer after a short delay to give the pages the
+ * late fetch traffic that page readiness has to wait for.
+ *
+ */
+public final class FixtureServer implements AutoCloseable {
+
+	private static final long API_DELAY_MILLIS = 50;
+
+	private final HttpServer server;
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private final Map<String, byte[]> pages = new HashMap<>();
+
+	private FixtureServer(HttpServer server) throws IOException {
+		this.server = server;
+		for (String page : new String[] { "home", "search", "product", "trolley" }) {
+			pages.put(page, read("/fixtures/" + page + ".html"));
+		}
+	}
+
+	/** Start on a free loopback port
+	 *
+	 * @return
+	 * @throws IOException
+	 */
+	public static FixtureServer start() throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		FixtureServer fixtures = new FixtureServer(server);
+		server.createContext("/", fixtures::handle);
+		server.setExecutor(fixtures.executor);
+		server.start();
+		return fixtures;
+	}
+
+	/** Absolute URL of a fixture page: home, search, product or trolley
+	 *
+	 * @param page
+	 * @return
+	 */
+	public String url(String page) {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + ("home".equals(page) ? "/" : "/" + page);
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		String path = exchange.getRequestURI().getPath();
+		try {
+			if (path.startsWith("/api/")) {
+				Thread.sleep(API_DELAY_MILLIS);
+				send(exchange, 200, "application/json", "{\"ok\":true}".getBytes(StandardCharsets.UTF_8));
+				return;
+			}
+			byte[] page = pages.get("/".equals(path) ? "home" : path.substring(1));
+			if (page == null) {
+				send(exchange, 404, "text/plain", "Not found".getBytes(StandardCharsets.UTF_8));
+				return;
+			}
+			send(exchange, 200, "text/html; charset=utf-8", page);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			send(exchange, 503, "text/plain", new byte[0]);
+		}
+	}
+
+	private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", contentType);
+		exchange.getResponseHeaders().set("Cache-Control", "no-store");
+		exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	private static byte[] read(String resource) throws IOException {
+		try (InputStream in = FixtureServer.class.getResourceAsStream(resource)) {
+			if (in == null) {
+				throw new IOException("Missing fixture " + resource);
+			}
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+}
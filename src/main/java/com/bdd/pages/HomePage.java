@@ -3,11 +3,14 @@ package com.bdd.pages;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
-import org.openqa.selenium.support.PageFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.bdd.utilities.ElementHelper;
+import com.bdd.utilities.Navigator;
+import com.bdd.utilities.PageElements;
+import com.bdd.utilities.PerformanceCollector;
+import com.bdd.utilities.Telemetry;
 
 
 
@@ -28,16 +31,30 @@ public class HomePage {
 	 * @param driver
 	 */
 	public HomePage(WebDriver driver) {
+		this(driver, new ElementHelper(driver));
+	}
+
+	/**
+	 * Constructor to assign driver and a helper shared with other pages.
+	 *
+	 * @param driver
+	 * @param elementHelper
+	 */
+	public HomePage(WebDriver driver, ElementHelper elementHelper) {
 		this.driver = driver;
-		elementHelper = new ElementHelper(driver);
-		PageFactory.initElements(driver, this);
+		this.elementHelper = elementHelper;
+		PageElements.init(driver, this);
 	}
 
 	public void verifyDirectedToHomePage() {
-
-		elementHelper.waitForElementVisible(argosHomeIcon);
-		elementHelper.isElementPresent(argosHomeIcon);
-		log.info("User is directed to Home page");
+		Telemetry.page(this, "verifyDirectedToHomePage", () -> {
+			// the home page is only loaded by scenarios that start from it
+			Navigator.openIfBlank(driver, Navigator.homeUrl());
+			elementHelper.waitForElementVisible(argosHomeIcon);
+			elementHelper.isElementPresent(argosHomeIcon);
+			PerformanceCollector.pageReady(driver, "home");
+			log.info("User is directed to Home page");
+		});
 	}
 
 }
@@ -0,0 +1,60 @@
+package com.bdd.pages;
+
+import org.openqa.selenium.WebDriver;
+
+import com.bdd.utilities.ElementHelper;
+
+/**
+ * Scenario-scoped access to the page objects.
+ *
+ * Pages are created on first use, so a scenario only pays for the pages it
+ * touches, and all of them share this container's ElementHelper. Like the
+ * driver it wraps, an instance belongs to one scenario thread.
+ */
+public class PageObjectManager {
+
+	private final WebDriver driver;
+	private final ElementHelper elementHelper;
+
+	private HomePage homePage;
+	private SearchResultPage searchResultPage;
+	private ProductPage productPage;
+	private TrolleyPage trolleyPage;
+
+	public PageObjectManager(WebDriver driver) {
+		this.driver = driver;
+		this.elementHelper = new ElementHelper(driver);
+	}
+
+	public ElementHelper getElementHelper() {
+		return elementHelper;
+	}
+
+	public HomePage getHomePage() {
+		if (homePage == null) {
+			homePage = new HomePage(driver, elementHelper);
+		}
+		return homePage;
+	}
+
+	public SearchResultPage getSearchResultPage() {
+		if (searchResultPage == null) {
+			searchResultPage = new SearchResultPage(driver, elementHelper);
+		}
+		return searchResultPage;
+	}
+
+	public ProductPage getProductPage() {
+		if (productPage == null) {
+			productPage = new ProductPage(driver, elementHelper);
+		}
+		return productPage;
+	}
+
+	public TrolleyPage getTrolleyPage() {
+		if (trolleyPage == null) {
+			trolleyPage = new TrolleyPage(driver, elementHelper);
+		}
+		return trolleyPage;
+	}
+}
@@ -1,14 +1,16 @@
 package com.bdd.pages;
 
-import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
-import org.openqa.selenium.support.PageFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.bdd.utilities.ElementHelper;
+import com.bdd.utilities.Navigator;
+import com.bdd.utilities.PageElements;
+import com.bdd.utilities.PerformanceCollector;
+import com.bdd.utilities.Telemetry;
 
 public class ProductPage {
 
@@ -41,9 +43,35 @@ public class ProductPage {
 	 * @param driver
 	 */
 	public ProductPage(WebDriver driver) {
+		this(driver, new ElementHelper(driver));
+	}
+
+	/**
+	 * Constructor to assign driver and a helper shared with other pages.
+	 *
+	 * @param driver
+	 * @param elementHelper
+	 */
+	public ProductPage(WebDriver driver, ElementHelper elementHelper) {
 		this.driver = driver;
-		elementHelper = new ElementHelper(driver);
-		PageFactory.initElements(driver, this);
+		this.elementHelper = elementHelper;
+		PageElements.init(driver, this);
+	}
+
+	/**
+	 * Method to open a product directly by its product ID
+	 * 
+	 * @param productId
+	 * @return
+	 */
+	public ProductPage open(String productId) {
+		return Telemetry.page(this, "open", () -> {
+			Navigator.open(driver, Navigator.productUrl(productId));
+			elementHelper.waitForPageToLoad();
+			PerformanceCollector.pageReady(driver, "product");
+			log.info("Product page opened for {}", productId);
+			return this;
+		});
 	}
 
 	/**
@@ -53,10 +81,12 @@ public class ProductPage {
 	 */
 
 	public String getProductTitle() {
-		elementHelper.waitForPageToLoad();
-		elementHelper.waitForElementVisible(productName);
-		return productName.getText();
-
+		return Telemetry.page(this, "getProductTitle", () -> {
+			elementHelper.waitForPageToLoad();
+			elementHelper.waitForElementVisible(productName);
+			PerformanceCollector.pageReady(driver, "product");
+			return productName.getText();
+		});
 	}
 
 	/**
@@ -65,11 +95,12 @@ public class ProductPage {
 	 */
 
 	public void clickAddToTrolley() {
-
-		elementHelper.waitForElementVisible(addToTrolleyBtn);
-		elementHelper.scrollIntoView(addToTrolleyBtn);
-		elementHelper.click("Add to Trolley Btn", addToTrolleyBtn);
-		log.info("Add to trolley button is clicked");
+		Telemetry.page(this, "clickAddToTrolley", () -> {
+			elementHelper.waitForElementVisible(addToTrolleyBtn);
+			elementHelper.scrollIntoView(addToTrolleyBtn);
+			elementHelper.click("Add to Trolley Btn", addToTrolleyBtn);
+			log.info("Add to trolley button is clicked");
+		});
 	}
 
 	/**
@@ -77,10 +108,11 @@ public class ProductPage {
 	 * 
 	 */
 	public void closeAddTrolleyDialogBox() {
-
-		elementHelper.waitForElementClickable(closeBtn);
-		elementHelper.click("AddTrolley Close Btn", closeBtn);
-		log.info("Add to trolley close button is clicked");
+		Telemetry.page(this, "closeAddTrolleyDialogBox", () -> {
+			elementHelper.waitForElementClickable(closeBtn);
+			elementHelper.click("AddTrolley Close Btn", closeBtn);
+			log.info("Add to trolley close button is clicked");
+		});
 	}
 
 	/**
@@ -88,12 +120,12 @@ public class ProductPage {
 	 * 
 	 */
 	public void clickTrolleyButton() {
-		elementHelper.scrollToTop();
-		WebElement trolleyButton = driver.findElement(By.xpath("//a[@data-test='trolley']"));
-		elementHelper.click("Trolley Btn", trolleyButton);
-		log.info("Trolley button is clicked");
-		elementHelper.waitForPageToLoad();
-
+		Telemetry.page(this, "clickTrolleyButton", () -> {
+			elementHelper.scrollToTop();
+			elementHelper.click("Trolley Btn", trolleyBtn);
+			log.info("Trolley button is clicked");
+			elementHelper.waitForPageToLoad();
+		});
 	}
 
 	/**
@@ -102,9 +134,10 @@ public class ProductPage {
 	 * @return
 	 */
 	public String getProductPrice() {
-		elementHelper.waitForElementVisible(productPrice);
-		return productPrice.getText();
-
+		return Telemetry.page(this, "getProductPrice", () -> {
+			elementHelper.waitForElementVisible(productPrice);
+			return productPrice.getText();
+		});
 	}
 
 }
@@ -7,11 +7,15 @@ import java.util.Random;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
-import org.openqa.selenium.support.PageFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.bdd.utilities.ElementData;
 import com.bdd.utilities.ElementHelper;
+import com.bdd.utilities.Navigator;
+import com.bdd.utilities.PageElements;
+import com.bdd.utilities.PerformanceCollector;
+import com.bdd.utilities.Telemetry;
 
 import lombok.extern.log4j.Log4j2;
 
@@ -37,9 +41,36 @@ public class SearchResultPage {
 	 * @param driver
 	 */
 	public SearchResultPage(WebDriver driver) {
+		this(driver, new ElementHelper(driver));
+	}
+
+	/**
+	 * Constructor to assign driver and a helper shared with other pages.
+	 *
+	 * @param driver
+	 * @param elementHelper
+	 */
+	public SearchResultPage(WebDriver driver, ElementHelper elementHelper) {
 		this.driver = driver;
-		elementHelper = new ElementHelper(driver);
-		PageFactory.initElements(driver, this);
+		this.elementHelper = elementHelper;
+		PageElements.init(driver, this);
+	}
+
+	/**
+	 * Method to open the search results for a term directly, without typing
+	 * into the search box
+	 * 
+	 * @param searchTerm
+	 * @return
+	 */
+	public SearchResultPage open(String searchTerm) {
+		return Telemetry.page(this, "open", () -> {
+			Navigator.open(driver, Navigator.searchUrl(searchTerm));
+			elementHelper.waitForPageToLoad();
+			PerformanceCollector.pageReady(driver, "search results");
+			log.info("Search results opened for {}", searchTerm);
+			return this;
+		});
 	}
 
 	/**
@@ -48,20 +79,21 @@ public class SearchResultPage {
 	 * @param product name
 	 */
 	public void enterProductInSearchBox(String productname) {
-
-		elementHelper.enterData(searchBox, productname);
-		log.info("Product is entered in the search box");
-
+		Telemetry.page(this, "enterProductInSearchBox", () -> {
+			elementHelper.enterData(searchBox, productname);
+			log.info("Product is entered in the search box");
+		});
 	}
 
 	/**
 	 * Method to click on search button
 	 */
 	public void clickSearchBtn() {
-
-		elementHelper.explicitWaitForClickable(searchBtn);
-		elementHelper.click("Search Button", searchBtn);
-		log.info("Search button is clicked");
+		Telemetry.page(this, "clickSearchBtn", () -> {
+			elementHelper.explicitWaitForClickable(searchBtn);
+			elementHelper.click("Search Button", searchBtn);
+			log.info("Search button is clicked");
+		});
 	}
 
 	/**
@@ -71,16 +103,19 @@ public class SearchResultPage {
 	 * @return true only if all product titles contain the productCategory
 	 */
 	public boolean verifySearchResultsContainOnly(String productCategory) {
-		elementHelper.waitForPageToLoad();	
-		elementHelper.waitForElementsVisible(productCards);
-		for (WebElement title : productCards) {
-			if (!title.getText().toLowerCase().contains(productCategory.toLowerCase())) {
-				log.info("Search results contains other products than the specified product category");
-				return false;
+		return Telemetry.page(this, "verifySearchResultsContainOnly", () -> {
+			elementHelper.waitForPageToLoad();	
+			elementHelper.waitForElementsVisible(productCards);
+			PerformanceCollector.pageReady(driver, "search results");
+			for (ElementData title : elementHelper.readAll(productCards)) {
+				if (!title.getText().toLowerCase().contains(productCategory.toLowerCase())) {
+					log.info("Search results contains other products than the specified product category");
+					return false;
+				}
 			}
-		}
-		log.info("Search results contain only the specified product category");
-		return true;
+			log.info("Search results contain only the specified product category");
+			return true;
+		});
 	}
 	
 	
@@ -91,14 +126,15 @@ public class SearchResultPage {
 	 */
 
 	public void selectRandomProduct() {
-
-		elementHelper.waitForElementsVisible(productCards);
-		Random random = new Random();
-		int index = random.nextInt(productCards.size());
-		WebElement randomProduct = productCards.get(index);
-		elementHelper.click("Random Product", randomProduct);
-		elementHelper.waitForPageToLoad();
-		log.info("Product is selected from the search page");
+		Telemetry.page(this, "selectRandomProduct", () -> {
+			elementHelper.waitForElementsVisible(productCards);
+			Random random = new Random();
+			int index = random.nextInt(productCards.size());
+			WebElement randomProduct = productCards.get(index);
+			elementHelper.click("Random Product", randomProduct);
+			elementHelper.waitForPageToLoad();
+			log.info("Product is selected from the search page");
+		});
 	}
 	
 	/** 
@@ -109,14 +145,15 @@ public class SearchResultPage {
 	 
 	
 	public void selectSpecificProduct(String product) {
-		elementHelper.waitForElementsVisible(productCards);
-		for (WebElement prod : productCards) {
-			if (prod.getText().toLowerCase().contains(product)) {
-				prod.click();
-				log.info("Product selected from search page is :  " +product);				
-				break;
+		Telemetry.page(this, "selectSpecificProduct", () -> {
+			elementHelper.waitForElementsVisible(productCards);
+			for (ElementData prod : elementHelper.readAll(productCards)) {
+				if (prod.getText().toLowerCase().contains(product)) {
+					prod.getElement().click();
+					log.info("Product selected from search page is :  {}", product);				
+					break;
+				}
 			}
-		}
-		
+		});
 	}
 }
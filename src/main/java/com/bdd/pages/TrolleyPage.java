@@ -6,11 +6,15 @@ import java.util.List;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
-import org.openqa.selenium.support.PageFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.bdd.utilities.ElementData;
 import com.bdd.utilities.ElementHelper;
+import com.bdd.utilities.Navigator;
+import com.bdd.utilities.PageElements;
+import com.bdd.utilities.PerformanceCollector;
+import com.bdd.utilities.Telemetry;
 
 
 
@@ -42,9 +46,34 @@ public class TrolleyPage {
 	 * @param driver
 	 */
 	public TrolleyPage(WebDriver driver) {
+		this(driver, new ElementHelper(driver));
+	}
+
+	/**
+	 * Constructor to assign driver and a helper shared with other pages.
+	 *
+	 * @param driver
+	 * @param elementHelper
+	 */
+	public TrolleyPage(WebDriver driver, ElementHelper elementHelper) {
 		this.driver = driver;
-		elementHelper = new ElementHelper(driver);
-		PageFactory.initElements(driver, this);
+		this.elementHelper = elementHelper;
+		PageElements.init(driver, this);
+	}
+
+	/**
+	 * Method to open the trolley directly
+	 * 
+	 * @return
+	 */
+	public TrolleyPage open() {
+		return Telemetry.page(this, "open", () -> {
+			Navigator.open(driver, Navigator.trolleyUrl());
+			elementHelper.waitForPageToLoad();
+			PerformanceCollector.pageReady(driver, "trolley");
+			log.info("Trolley opened");
+			return this;
+		});
 	}
 
 	/**
@@ -54,9 +83,12 @@ public class TrolleyPage {
 	 */
 
 	public String getProductNameFromTrolley() {
-		elementHelper.waitForPageToLoad();
-		elementHelper.waitForElementVisible(trolleyproductName);
-		return trolleyproductName.getText();
+		return Telemetry.page(this, "getProductNameFromTrolley", () -> {
+			elementHelper.waitForPageToLoad();
+			elementHelper.waitForElementVisible(trolleyproductName);
+			PerformanceCollector.pageReady(driver, "trolley");
+			return trolleyproductName.getText();
+		});
 	}
 
 	/**
@@ -65,30 +97,32 @@ public class TrolleyPage {
 	 * @param quantity
 	 */
 	public double getSingleProductPrice() {
-		elementHelper.waitForElementVisible(productPrice);
-		String singleUnitPriceText = productPrice.getText().replaceAll("[^0-9.]", "");
-		double singleUnitPrice = Double.parseDouble(singleUnitPriceText);
-		return singleUnitPrice;
-
+		return Telemetry.page(this, "getSingleProductPrice", () -> {
+			elementHelper.waitForElementVisible(productPrice);
+			String singleUnitPriceText = productPrice.getText().replaceAll("[^0-9.]", "");
+			double singleUnitPrice = Double.parseDouble(singleUnitPriceText);
+			return singleUnitPrice;
+		});
 	}
 
 	public double selectQuantityDropdownAndGetTotal(String quantity) {
-		double singleProductPrice = getSingleProductPrice();
-		elementHelper.waitForElementVisible(quantityDd);
-		elementHelper.click("Quantity Dropdown", quantityDd);
-		elementHelper.waitForElementsVisible(prodQuantityDd);
-		for (WebElement quan : prodQuantityDd) {
-			if (quan.getText().equals(quantity)) {
-				elementHelper.click("Quantity", quan);
-				log.info("Selected quantity: " + quantity);
-				elementHelper.waitForPageToLoad();
-				break;
+		return Telemetry.page(this, "selectQuantityDropdownAndGetTotal", () -> {
+			double singleProductPrice = getSingleProductPrice();
+			elementHelper.waitForElementVisible(quantityDd);
+			elementHelper.click("Quantity Dropdown", quantityDd);
+			elementHelper.waitForElementsVisible(prodQuantityDd);
+			for (ElementData quan : elementHelper.readAll(prodQuantityDd)) {
+				if (quan.getText().equals(quantity)) {
+					elementHelper.click("Quantity", quan.getElement());
+					log.info("Selected quantity: {}", quantity);
+					elementHelper.waitForNetworkIdle();
+					break;
+				}
 			}
-		}
-		int quantityInt = Integer.parseInt(quantity);
-		log.info("Single unit * quantity:  " + singleProductPrice * quantityInt);
-		return singleProductPrice * quantityInt;
-
+			int quantityInt = Integer.parseInt(quantity);
+			log.info("Single unit * quantity:  {}", singleProductPrice * quantityInt);
+			return singleProductPrice * quantityInt;
+		});
 	}
 
 	/**
@@ -98,11 +132,13 @@ public class TrolleyPage {
 	 * @throws InterruptedException 
 	 */
 	public double getSubTotalPrice() throws InterruptedException {
-		elementHelper.waitForElementVisible(subTotal);
-		String subtotalText = subTotal.getText().replaceAll("[^0-9.]", "");
-		double subtotal = Double.parseDouble(subtotalText);
-		log.info("Subtotal is :"  +subtotal);
-		return subtotal;
+		return Telemetry.page(this, "getSubTotalPrice", () -> {
+			elementHelper.waitForElementVisible(subTotal);
+			String subtotalText = subTotal.getText().replaceAll("[^0-9.]", "");
+			double subtotal = Double.parseDouble(subtotalText);
+			log.info("Subtotal is :{}", subtotal);
+			return subtotal;
+		});
 	}
 
 }
@@ -1,11 +1,9 @@
 package com.bdd.stepdefinitions;
 
-import com.bdd.pages.HomePage;
-import com.bdd.pages.ProductPage;
-
-import com.bdd.pages.SearchResultPage;
-import com.bdd.pages.TrolleyPage;
-import com.bdd.utilities.ElementHelper;
+import com.bdd.pages.PageObjectManager;
+import com.bdd.utilities.BrowserFootprint;
+import com.bdd.utilities.PerformanceCollector;
+import com.bdd.utilities.ScenarioDeadline;
 
 import com.bdd.utilities.WebDriverManager;
 
@@ -18,6 +16,7 @@ import lombok.extern.log4j.Log4j2;
 import org.openqa.selenium.WebDriver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.testng.Assert;
 
 
@@ -25,49 +24,52 @@ public class ArgosShoppingStepDefinition {
 
 	private Scenario scenario;
 	private WebDriver driver;
-	private ElementHelper elementHelper;
-	private HomePage homePage;
-	private SearchResultPage searchPage;
-	private ProductPage productPage;
-	private TrolleyPage trolleyPage;
+	private PageObjectManager pages;
 	String productTitle;
 	protected static Logger log = LoggerFactory.getLogger(ArgosShoppingStepDefinition.class);
 	
 	@Before
 	public void setUp(Scenario scenario) {
-		driver = WebDriverManager.getDriver();
-		homePage = new HomePage(driver);
-		elementHelper = new ElementHelper(driver);
-		searchPage = new SearchResultPage(driver);
-		trolleyPage = new TrolleyPage(driver);
-		productPage= new  ProductPage(driver);
+		// assigned first so quit() can always clean up, even if the browser never starts
 		this.scenario = scenario;
-		log.info("Scenario: " + scenario.getName()); // Log scenario name
+		MDC.put("scenario", scenario.getName() + ":" + scenario.getLine());
+		BrowserFootprint.scenarioStarted();
+		ScenarioDeadline.start(scenario.getName());
+		PerformanceCollector.scenarioStarted();
+		driver = WebDriverManager.getDriver();
+		pages = new PageObjectManager(driver);
+		log.info("Scenario: {}", scenario.getName()); // Log scenario name
 	}
 
 	@After
 	public void quit() {
-		WebDriverManager.quitDriver(scenario);
-		log.info("WebDriver quit.");
+		try {
+			BrowserFootprint.scenarioFinished(scenario.getName());
+			WebDriverManager.quitDriver(scenario);
+			log.info("WebDriver quit.");
+		} finally {
+			ScenarioDeadline.clear();
+			MDC.remove("scenario");
+		}
 	}
 
 	@Given("User navigates to Argos website")
 	public void user_navigates_to_argos_website() {
-		homePage.verifyDirectedToHomePage();
+		pages.getHomePage().verifyDirectedToHomePage();
 
 	}
 
 	@When("User searches for a product {string}")
 	public void user_searches_for_a_product(String productname)  {
 
-		searchPage.enterProductInSearchBox(productname);
-		searchPage.clickSearchBtn();
+		pages.getSearchResultPage().enterProductInSearchBox(productname);
+		pages.getSearchResultPage().clickSearchBtn();
 		
 	}
 
 	@Then("User verifies the search result page contains {string}")
 	public void user_verifies_the_search_result_page_contains(String productCategory) {
-		boolean result = searchPage.verifySearchResultsContainOnly(productCategory);
+		boolean result = pages.getSearchResultPage().verifySearchResultsContainOnly(productCategory);
 		Assert.assertTrue(result, "Search results do not contain only the specified product category.");
 
 	}
@@ -75,28 +77,50 @@ public class ArgosShoppingStepDefinition {
 	@And("User adds the product to the trolley {string}")
 	public void user_adds_the_product_to_the_trolley(String productname) {
 		
-		searchPage.selectSpecificProduct(productname);	
-		productTitle = productPage.getProductTitle();
-		productPage.clickAddToTrolley();
-		productPage.closeAddTrolleyDialogBox();
+		pages.getSearchResultPage().selectSpecificProduct(productname);	
+		productTitle = pages.getProductPage().getProductTitle();
+		pages.getProductPage().clickAddToTrolley();
+		pages.getProductPage().closeAddTrolleyDialogBox();
 		
 	}
 
 	@Then("User validates the product is in the trolley")
 	public void user_validates_the_product_is_in_the_trolley() {
-		productPage.clickTrolleyButton();
-		Assert.assertEquals(trolleyPage.getProductNameFromTrolley(), productTitle);		
+		pages.getProductPage().clickTrolleyButton();
+		Assert.assertEquals(pages.getTrolleyPage().getProductNameFromTrolley(), productTitle);		
 		
 	}
 	
 	@And("User increase the quantity by {string}")
 	public void user_increase_the_quantity_by(String quant) {
-	   trolleyPage.selectQuantityDropdownAndGetTotal(quant);
+	   pages.getTrolleyPage().selectQuantityDropdownAndGetTotal(quant);
 		
 	}
+	@Given("User opens the search results for {string}")
+	public void user_opens_the_search_results_for(String productCategory) {
+		pages.getSearchResultPage().open(productCategory);
+	}
+
+	@When("User opens the trolley")
+	public void user_opens_the_trolley() {
+		pages.getTrolleyPage().open();
+	}
+
+	@Then("User sees the product in the trolley")
+	public void user_sees_the_product_in_the_trolley() {
+		Assert.assertEquals(pages.getTrolleyPage().getProductNameFromTrolley(), productTitle);
+	}
+
 	@Then("User validate the subtotal with unit price and {string}")
 	public void user_validate_the_subtotal(String Quantity) throws InterruptedException {
-		   Assert.assertEquals(trolleyPage.selectQuantityDropdownAndGetTotal(Quantity),trolleyPage.getSubTotalPrice());
+		   Assert.assertEquals(pages.getTrolleyPage().selectQuantityDropdownAndGetTotal(Quantity),pages.getTrolleyPage().getSubTotalPrice());
+	}
+
+	@Then("the {string} page {word} is under {string}")
+	public void the_page_metric_is_under(String page, String metric, String budget) {
+		double actual = PerformanceCollector.metric(page, metric);
+		Assert.assertTrue(actual < PerformanceCollector.parseBudget(budget),
+				String.format("%s on the %s page was %.3f, over the budget of %s", metric, page, actual, budget));
 	}
 
 
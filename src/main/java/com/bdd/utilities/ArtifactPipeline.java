@@ -0,0 +1,190 @@
+package com.bdd.utilities;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.ChromiumOptions;
+import org.openqa.selenium.edge.EdgeOptions;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.logging.LogType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.cucumber.java.Scenario;
+
+/**
+ * Failure artifacts written in the background and linked from the report.
+ *
+ * On a failed scenario the screenshot bytes (and, when enabled, the DOM and
+ * the browser console log) are read from the browser and handed to a
+ * bounded executor that converts the screenshot to JPEG and writes
+ * everything under target/cucumber-reports/artifacts. The scenario only gets
+ * text/uri-list attachments holding the relative file paths, so nothing is
+ * base64-embedded in Cucumber.json or cucumber.html. When the queue is full
+ * the calling thread does the work itself.
+ *
+ * Pending work is drained by {@link #drain()} at the end of the suite and by
+ * a shutdown hook.
+ *
+ */
+public final class ArtifactPipeline {
+
+	protected static Logger log = LoggerFactory.getLogger(ArtifactPipeline.class);
+
+	private static final File REPORT_DIR = new File("target/cucumber-reports");
+	private static final String ARTIFACT_DIR = "artifacts";
+
+	private static final AtomicInteger sequence = new AtomicInteger();
+	private static final ThreadPoolExecutor writer = createWriter();
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(ArtifactPipeline::drain, "artifact-drain"));
+	}
+
+	private ArtifactPipeline() {
+		throw new IllegalStateException("ArtifactPipeline class cannot be instantiated.");
+	}
+
+	private static ThreadPoolExecutor createWriter() {
+		Config config = ConfigManager.get();
+		int threads = config.getInt("artifacts.threads", 2);
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(config.getInt("artifacts.queue", 32)), runnable -> {
+					Thread thread = new Thread(runnable, "artifact-writer");
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/** Ask Chrome or Edge to keep the console log when it is collected
+	 *
+	 * @param options
+	 */
+	public static void apply(ChromiumOptions<?> options) {
+		if (ConfigManager.get().getBoolean("artifacts.console", true)) {
+			options.setCapability(options instanceof EdgeOptions ? "ms:loggingPrefs" : "goog:loggingPrefs",
+					Collections.singletonMap(LogType.BROWSER, "ALL"));
+		}
+	}
+
+	/** Collect the failure artifacts of a scenario and attach their paths
+	 *
+	 * @param driver
+	 * @param scenario
+	 */
+	public static void captureFailure(WebDriver driver, Scenario scenario) {
+		long start = System.nanoTime();
+		Config config = ConfigManager.get();
+		String folder = ARTIFACT_DIR + "/" + sequence.incrementAndGet() + "-"
+				+ scenario.getName().replaceAll("[^A-Za-z0-9]+", "-").toLowerCase();
+		try {
+			byte[] png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+			String path = folder + "/screenshot.jpg";
+			float quality = (float) config.getInt("artifacts.jpeg.quality", 70) / 100;
+			writer.execute(() -> writeJpeg(png, new File(REPORT_DIR, path), quality));
+			scenario.attach(path, "text/uri-list", "Screenshot");
+		} catch (RuntimeException e) {
+			log.warn("Unable to capture failure screenshot: {}", e.getMessage());
+		}
+		if (config.getBoolean("artifacts.dom", true)) {
+			try {
+				String dom = driver.getPageSource();
+				String path = folder + "/dom.html";
+				writer.execute(() -> writeText(dom, new File(REPORT_DIR, path)));
+				scenario.attach(path, "text/uri-list", "DOM snapshot");
+			} catch (RuntimeException e) {
+				log.warn("Unable to capture the DOM: {}", e.getMessage());
+			}
+		}
+		if (config.getBoolean("artifacts.console", true)) {
+			try {
+				Iterable<LogEntry> entries = driver.manage().logs().get(LogType.BROWSER);
+				String path = folder + "/console.log";
+				writer.execute(() -> writeText(format(entries), new File(REPORT_DIR, path)));
+				scenario.attach(path, "text/uri-list", "Console log");
+			} catch (RuntimeException e) {
+				log.warn("Unable to read the browser console log: {}", e.getMessage());
+			}
+		}
+		log.info("Queued failure artifacts in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+	}
+
+	/** Wait for every queued artifact to be written
+	 *
+	 */
+	public static void drain() {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+		while ((writer.getActiveCount() > 0 || !writer.getQueue().isEmpty()) && System.nanoTime() < deadline) {
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private static String format(Iterable<LogEntry> entries) {
+		StringBuilder text = new StringBuilder();
+		for (LogEntry entry : entries) {
+			text.append(entry.toString()).append('\n');
+		}
+		return text.toString();
+	}
+
+	private static void writeJpeg(byte[] png, File target, float quality) {
+		try {
+			BufferedImage source = ImageIO.read(new ByteArrayInputStream(png));
+			BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+			Graphics2D graphics = rgb.createGraphics();
+			graphics.drawImage(source, 0, 0, Color.WHITE, null);
+			graphics.dispose();
+			target.getParentFile().mkdirs();
+			Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+			ImageWriter jpeg = writers.next();
+			ImageWriteParam params = jpeg.getDefaultWriteParam();
+			params.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+			params.setCompressionQuality(quality);
+			try (ImageOutputStream out = ImageIO.createImageOutputStream(target)) {
+				jpeg.setOutput(out);
+				jpeg.write(null, new IIOImage(rgb, null, null), params);
+			} finally {
+				jpeg.dispose();
+			}
+		} catch (IOException | RuntimeException e) {
+			log.warn("Unable to write {}: {}", target, e.getMessage());
+		}
+	}
+
+	private static void writeText(String text, File target) {
+		try {
+			target.getParentFile().mkdirs();
+			Files.write(target.toPath(), text.getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			log.warn("Unable to write {}: {}", target, e.getMessage());
+		}
+	}
+}
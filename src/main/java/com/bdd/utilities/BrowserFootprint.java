@@ -0,0 +1,153 @@
+package com.bdd.utilities;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records scenario duration and browser memory so browser profiles can be compared.
+ *
+ * With browser.footprint.enabled=true one CSV row per scenario is appended
+ * to target/browser-footprint.csv holding the profile name, the scenario
+ * duration and the resident memory of all Chrome/Edge processes on the host
+ * (read from /proc, so Linux only; -1 elsewhere). Run the suite once per
+ * profile and then run {@link #main(String[])} to print the comparison.
+ *
+ */
+public final class BrowserFootprint {
+
+	protected static Logger log = LoggerFactory.getLogger(BrowserFootprint.class);
+
+	private static final File REPORT = new File("target/browser-footprint.csv");
+	private static final ThreadLocal<Long> scenarioStart = new ThreadLocal<>();
+
+	private BrowserFootprint() {
+		throw new IllegalStateException("BrowserFootprint class cannot be instantiated.");
+	}
+
+	public static boolean isEnabled() {
+		return ConfigManager.get().getBoolean("browser.footprint.enabled", false);
+	}
+
+	public static void scenarioStarted() {
+		scenarioStart.set(System.nanoTime());
+	}
+
+	/** Append the measurement for the scenario that is finishing on this thread.
+	 * Never throws, so it cannot keep the browser from being quit.
+	 *
+	 * @param scenarioName
+	 */
+	public static void scenarioFinished(String scenarioName) {
+		Long start = scenarioStart.get();
+		scenarioStart.remove();
+		if (start == null || !isEnabled()) {
+			return;
+		}
+		try {
+			record(String.valueOf(scenarioName), (System.nanoTime() - start) / 1_000_000);
+		} catch (RuntimeException e) {
+			log.warn("Unable to measure browser footprint for '{}': {}", scenarioName, e.toString());
+		}
+	}
+
+	private static void record(String scenarioName, long durationMillis) {
+		long rssKb = browserRssKb();
+		String profile = BrowserProfile.fromConfig().getName();
+		synchronized (BrowserFootprint.class) {
+			boolean newFile = !REPORT.exists();
+			REPORT.getParentFile().mkdirs();
+			try (PrintWriter out = new PrintWriter(new FileWriter(REPORT, true))) {
+				if (newFile) {
+					out.println("profile,scenario,durationMs,browserRssKb");
+				}
+				out.println(profile + "," + scenarioName.replace(',', ' ') + "," + durationMillis + "," + rssKb);
+			} catch (IOException e) {
+				log.warn("Unable to write {}: {}", REPORT, e.getMessage());
+			}
+		}
+		log.info("Scenario '{}' took {} ms with browser RSS {} kB ({} profile)", scenarioName, durationMillis, rssKb,
+				profile);
+	}
+
+	/** Sum of VmRSS over all chrome/msedge processes, or -1 when /proc is unavailable
+	 *
+	 * @return
+	 */
+	static long browserRssKb() {
+		File[] processes = new File("/proc").listFiles();
+		if (processes == null) {
+			return -1;
+		}
+		long total = 0;
+		for (File process : processes) {
+			if (!process.getName().matches("\\d+")) {
+				continue;
+			}
+			try {
+				String cmdline = new String(Files.readAllBytes(new File(process, "cmdline").toPath()),
+						StandardCharsets.UTF_8);
+				int end = cmdline.indexOf('\0');
+				String executable = new File(end >= 0 ? cmdline.substring(0, end) : cmdline).getName();
+				if (!executable.startsWith("chrome") && !executable.startsWith("msedge")) {
+					continue;
+				}
+				if (executable.endsWith("driver")) {
+					continue;
+				}
+				total += readRssKb(new File(process, "status"));
+			} catch (IOException e) {
+				// process exited while scanning
+			}
+		}
+		return total;
+	}
+
+	private static long readRssKb(File status) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(status.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith("VmRSS:")) {
+					return Long.parseLong(line.replaceAll("[^0-9]", ""));
+				}
+			}
+		}
+		return 0;
+	}
+
+	/** Print average scenario time and browser RSS per profile from the CSV
+	 *
+	 * @param args optional path to the CSV
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		File csv = args.length > 0 ? new File(args[0]) : REPORT;
+		Map<String, long[]> totals = new TreeMap<>();
+		for (String line : Files.readAllLines(csv.toPath(), StandardCharsets.UTF_8)) {
+			String[] columns = line.split(",");
+			if (columns.length < 4 || "profile".equals(columns[0])) {
+				continue;
+			}
+			long[] sums = totals.computeIfAbsent(columns[0], key -> new long[3]);
+			sums[0]++;
+			sums[1] += Long.parseLong(columns[2]);
+			sums[2] += Long.parseLong(columns[3]);
+		}
+		System.out.println(String.format("%-10s %10s %16s %18s", "profile", "scenarios", "avg duration ms",
+				"avg browser RSS MB"));
+		for (Map.Entry<String, long[]> entry : totals.entrySet()) {
+			long[] sums = entry.getValue();
+			System.out.println(String.format("%-10s %10d %16d %18d", entry.getKey(), sums[0], sums[1] / sums[0],
+					sums[2] / sums[0] / 1024));
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package com.bdd.utilities;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.interactions.Actions;
+
+/**
+ * Keyboard and scroll input sent through the browser session.
+ *
+ * Keys go through W3C Actions and scrolling through JavaScript, so input
+ * reaches only this driver's browser. Unlike java.awt.Robot it needs no
+ * display or window focus, and works headless and with several browsers
+ * running on one host.
+ *
+ */
+public class BrowserInput {
+
+	private final WebDriver driver;
+
+	public BrowserInput(WebDriver driver) {
+		this.driver = driver;
+	}
+
+	/** Press and release a key in the focused element of this browser
+	 * 
+	 * @param key
+	 */
+	public void press(Keys key) {
+		new Actions(driver).sendKeys(key).perform();
+	}
+
+	public void pageUp() {
+		press(Keys.PAGE_UP);
+	}
+
+	public void pageDown() {
+		press(Keys.PAGE_DOWN);
+	}
+
+	/** Scroll the document back to the very top
+	 * 
+	 */
+	public void scrollToTop() {
+		((JavascriptExecutor) driver).executeScript("window.scrollTo(0, 0);");
+	}
+}
@@ -0,0 +1,122 @@
+package com.bdd.utilities;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.chromium.ChromiumOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Browser launch profile shared by Chrome and Edge.
+ *
+ * The standard profile is the headed, maximized browser the suite has always
+ * used. With browser.lean=true the browser runs headless at a fixed window
+ * size with background services disabled, a capped number of renderer
+ * processes and optional blocking of images, web fonts and media, so that
+ * several browsers fit on one CI agent.
+ *
+ */
+public final class BrowserProfile {
+
+	protected static Logger log = LoggerFactory.getLogger(BrowserProfile.class);
+
+	static final String[] FONT_PATTERNS = { "*.woff", "*.woff2", "*.ttf", "*.otf", "*.eot" };
+	private static final String[] MEDIA_PATTERNS = { "*.mp4", "*.webm", "*.m3u8", "*.mp3", "*.ogg" };
+
+	private final boolean lean;
+	private final boolean headless;
+	private final String windowSize;
+	private final boolean blockImages;
+	private final boolean blockFonts;
+	private final boolean blockMedia;
+	private final int rendererProcessLimit;
+
+	private BrowserProfile(Config config) {
+		this.lean = config.getBoolean("browser.lean", false);
+		this.headless = config.getBoolean("browser.headless", true);
+		this.windowSize = config.getString("browser.window.size", "1366,768");
+		this.blockImages = config.getBoolean("browser.block.images", true);
+		this.blockFonts = config.getBoolean("browser.block.fonts", false);
+		this.blockMedia = config.getBoolean("browser.block.media", true);
+		this.rendererProcessLimit = config.getInt("browser.renderer.processLimit", 2);
+	}
+
+	public static BrowserProfile fromConfig() {
+		return new BrowserProfile(ConfigManager.get());
+	}
+
+	public boolean isLean() {
+		return lean;
+	}
+
+	public String getName() {
+		return lean ? "lean" : "standard";
+	}
+
+	/** Add the lean switches to Chrome or Edge options
+	 *
+	 * @param options
+	 */
+	public void apply(ChromiumOptions<?> options) {
+		if (!lean) {
+			return;
+		}
+		if (headless) {
+			options.addArguments("--headless=new");
+		}
+		options.addArguments("--window-size=" + windowSize);
+		options.addArguments("--disable-gpu");
+		options.addArguments("--disable-extensions");
+		options.addArguments("--disable-background-networking");
+		options.addArguments("--disable-background-timer-throttling");
+		options.addArguments("--disable-component-update");
+		options.addArguments("--disable-default-apps");
+		options.addArguments("--disable-sync");
+		options.addArguments("--disable-dev-shm-usage");
+		options.addArguments("--metrics-recording-only");
+		options.addArguments("--mute-audio");
+		options.addArguments("--no-first-run");
+		options.addArguments("--disable-features=Translate,OptimizationHints,MediaRouter");
+		options.addArguments("--renderer-process-limit=" + rendererProcessLimit);
+
+		Map<String, Object> prefs = new HashMap<>();
+		if (blockImages) {
+			options.addArguments("--blink-settings=imagesEnabled=false");
+			prefs.put("profile.managed_default_content_settings.images", 2);
+		}
+		if (blockMedia) {
+			options.addArguments("--autoplay-policy=user-gesture-required");
+		}
+		if (!prefs.isEmpty()) {
+			options.setExperimentalOption("prefs", prefs);
+		}
+	}
+
+	/** URL patterns the browser should refuse to fetch under this profile,
+	 * applied together with the blocklist by {@link NetworkBlocker}
+	 *
+	 * @return
+	 */
+	public List<String> blockedUrlPatterns() {
+		List<String> patterns = new ArrayList<>();
+		if (lean && blockFonts) {
+			Collections.addAll(patterns, FONT_PATTERNS);
+		}
+		if (lean && blockMedia) {
+			Collections.addAll(patterns, MEDIA_PATTERNS);
+		}
+		return patterns;
+	}
+
+	/** Whether a new scenario should maximize the window
+	 *
+	 * @return
+	 */
+	public boolean shouldMaximize() {
+		return !lean;
+	}
+}
@@ -0,0 +1,371 @@
+package com.bdd.utilities;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Waits for element conditions inside the page instead of polling remotely.
+ *
+ * A single executeAsyncScript call installs a MutationObserver and a
+ * requestAnimationFrame loop that re-check the condition whenever the DOM or
+ * layout can have changed, and returns as soon as it holds. That replaces
+ * one WebDriver round trip per 500ms poll with one round trip per wait.
+ *
+ * When the in-page wait cannot be used (the element proxy cannot be
+ * resolved yet, the page navigates away mid-wait, scripts are blocked) the
+ * result is marked as not handled and the caller falls back to classic
+ * WebDriverWait polling for whatever is left of its timeout. Set
+ * wait.engine=polling to always poll.
+ *
+ * The same approach backs page readiness: {@link #awaitNetworkIdle} waits in
+ * the page until no fetch/XHR request has been in flight for a quiet window.
+ * Pages that never go quiet are reported as not handled so the caller can
+ * fall back to document.readyState.
+ *
+ */
+public class BrowserWaitEngine {
+
+	public enum Condition {
+		PRESENT, VISIBLE, CLICKABLE, INVISIBLE, TEXT
+	}
+
+	protected static Logger log = LoggerFactory.getLogger(BrowserWaitEngine.class);
+
+	private static final String DEFAULT_NETWORK_IGNORE = "google-analytics.com,googletagmanager.com,doubleclick.net,"
+			+ "facebook.net,hotjar.com,/collect?,/beacon";
+	private static final Duration SCRIPT_TIMEOUT = Duration.ofMinutes(5);
+	private static final Map<WebDriver, Boolean> configuredDrivers = Collections
+			.synchronizedMap(new WeakHashMap<WebDriver, Boolean>());
+
+	private static final String WAIT_SCRIPT = "var target = arguments[0], using = arguments[1], condition = arguments[2],"
+			+ "    text = arguments[3], timeout = arguments[4], done = arguments[arguments.length - 1];"
+			+ "var finished = false, observer = null, timer = null, interval = null, lookupMs = 0, lookups = 0;"
+			+ "function resolve() {"
+			+ "  if (using === 'element') { return target; }"
+			+ "  if (using === 'css selector') { return document.querySelector(target); }"
+			+ "  return document.evaluate(target, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;"
+			+ "}"
+			+ "function visible(el) {"
+			+ "  if (!el || !el.isConnected) { return false; }"
+			+ "  var style = window.getComputedStyle(el);"
+			+ "  if (style.display === 'none' || style.visibility === 'hidden' || parseFloat(style.opacity) === 0) { return false; }"
+			+ "  var rect = el.getBoundingClientRect();"
+			+ "  return rect.width > 0 && rect.height > 0;"
+			+ "}"
+			+ "function check() {"
+			+ "  var started = performance.now(), el = resolve();"
+			+ "  lookupMs += performance.now() - started;"
+			+ "  lookups++;"
+			+ "  switch (condition) {"
+			+ "    case 'PRESENT': return el && el.isConnected ? { element: el } : null;"
+			+ "    case 'VISIBLE': return visible(el) ? { element: el } : null;"
+			+ "    case 'CLICKABLE': return visible(el) && !el.disabled ? { element: el } : null;"
+			+ "    case 'INVISIBLE': return visible(el) ? null : { element: null };"
+			+ "    case 'TEXT': return el && (el.innerText || el.textContent || '').indexOf(text) >= 0 ? { element: el } : null;"
+			+ "  }"
+			+ "  return null;"
+			+ "}"
+			+ "function finish(result) {"
+			+ "  if (finished) { return; }"
+			+ "  finished = true;"
+			+ "  if (observer) { observer.disconnect(); }"
+			+ "  clearTimeout(timer); clearInterval(interval);"
+			+ "  done(result);"
+			+ "}"
+			+ "function poll() {"
+			+ "  if (finished) { return; }"
+			+ "  try {"
+			+ "    var found = check();"
+			+ "    if (found) { finish({ status: 'ok', element: found.element, lookupMs: lookupMs / lookups }); }"
+			+ "  } catch (e) { finish({ status: 'error', message: String(e) }); }"
+			+ "}"
+			+ "poll();"
+			+ "if (!finished) {"
+			+ "  observer = new MutationObserver(poll);"
+			+ "  observer.observe(document, { subtree: true, childList: true, attributes: true, characterData: true });"
+			+ "  (function frame() { poll(); if (!finished) { requestAnimationFrame(frame); } })();"
+			+ "  interval = setInterval(poll, 100);"
+			+ "  timer = setTimeout(function () { finish({ status: 'timeout' }); }, timeout);"
+			+ "}";
+
+	/**
+	 * Counts fetch/XHR calls in flight and remembers when the network was last
+	 * active. Requests whose URL contains one of window.__argosNetworkIgnore
+	 * (analytics, beacons) and sendBeacon calls do not count. Safe to run more
+	 * than once per document.
+	 */
+	public static final String NETWORK_INSTRUMENTATION = "(function () {"
+			+ "  if (window.__argosNetwork) { return; }"
+			+ "  var net = window.__argosNetwork = { inflight: 0, lastActivity: performance.now() };"
+			+ "  net.ignored = function (url) {"
+			+ "    var patterns = window.__argosNetworkIgnore || [];"
+			+ "    url = String(url || '');"
+			+ "    for (var i = 0; i < patterns.length; i++) {"
+			+ "      if (patterns[i] && url.indexOf(patterns[i]) >= 0) { return true; }"
+			+ "    }"
+			+ "    return false;"
+			+ "  };"
+			+ "  function started() { net.inflight++; net.lastActivity = performance.now(); }"
+			+ "  function ended() { net.inflight = Math.max(0, net.inflight - 1); net.lastActivity = performance.now(); }"
+			+ "  if (window.fetch) {"
+			+ "    var originalFetch = window.fetch;"
+			+ "    window.fetch = function (input) {"
+			+ "      if (net.ignored(input && input.url ? input.url : input)) { return originalFetch.apply(this, arguments); }"
+			+ "      started();"
+			+ "      try {"
+			+ "        return originalFetch.apply(this, arguments).then("
+			+ "          function (response) { ended(); return response; },"
+			+ "          function (error) { ended(); throw error; });"
+			+ "      } catch (e) { ended(); throw e; }"
+			+ "    };"
+			+ "  }"
+			+ "  var originalOpen = XMLHttpRequest.prototype.open;"
+			+ "  XMLHttpRequest.prototype.open = function (method, url) {"
+			+ "    this.__argosUrl = url;"
+			+ "    return originalOpen.apply(this, arguments);"
+			+ "  };"
+			+ "  var originalSend = XMLHttpRequest.prototype.send;"
+			+ "  XMLHttpRequest.prototype.send = function () {"
+			+ "    if (net.ignored(this.__argosUrl)) { return originalSend.apply(this, arguments); }"
+			+ "    started();"
+			+ "    this.addEventListener('loadend', ended, { once: true });"
+			+ "    try { return originalSend.apply(this, arguments); } catch (e) { ended(); throw e; }"
+			+ "  };"
+			+ "  try {"
+			+ "    new PerformanceObserver(function (list) {"
+			+ "      var entries = list.getEntries();"
+			+ "      for (var i = 0; i < entries.length; i++) {"
+			+ "        if (entries[i].initiatorType !== 'beacon' && !net.ignored(entries[i].name)) {"
+			+ "          net.lastActivity = performance.now();"
+			+ "        }"
+			+ "      }"
+			+ "    }).observe({ type: 'resource', buffered: false });"
+			+ "  } catch (e) {}"
+			+ "})();";
+
+	private static final String NETWORK_IDLE_SCRIPT = "window.__argosNetworkIgnore = arguments[2];"
+			+ NETWORK_INSTRUMENTATION
+			+ "var quiet = arguments[0], timeout = arguments[1], done = arguments[arguments.length - 1];"
+			+ "var net = window.__argosNetwork, started = performance.now();"
+			+ "var resources = performance.getEntriesByType('resource');"
+			+ "for (var i = resources.length - 1; i >= 0; i--) {"
+			+ "  if (resources[i].initiatorType !== 'beacon' && !net.ignored(resources[i].name)) {"
+			+ "    net.lastActivity = Math.max(net.lastActivity, resources[i].responseEnd);"
+			+ "    break;"
+			+ "  }"
+			+ "}"
+			+ "var timer = setInterval(function () {"
+			+ "  var now = performance.now();"
+			+ "  if (document.readyState === 'complete' && net.inflight === 0 && now - net.lastActivity >= quiet) {"
+			+ "    clearInterval(timer);"
+			+ "    done({ status: 'ok', waited: Math.round(now - started) });"
+			+ "  } else if (now - started >= timeout) {"
+			+ "    clearInterval(timer);"
+			+ "    done({ status: 'timeout', inflight: net.inflight, readyState: document.readyState });"
+			+ "  }"
+			+ "}, 50);";
+
+	/**
+	 * Outcome of an in-page wait. When not handled the caller must poll instead.
+	 */
+	public static final class Result {
+		private static final Result NOT_HANDLED = new Result(false, null, -1);
+
+		private final boolean handled;
+		private final WebElement element;
+		private final long lookupNanos;
+
+		private Result(boolean handled, WebElement element, long lookupNanos) {
+			this.handled = handled;
+			this.element = element;
+			this.lookupNanos = lookupNanos;
+		}
+
+		public boolean isHandled() {
+			return handled;
+		}
+
+		public WebElement getElement() {
+			return element;
+		}
+
+		/** Average time the page spent evaluating the locator per check
+		 *
+		 * @return nanoseconds, or -1 when the wait did not resolve a locator
+		 */
+		public long getLookupNanos() {
+			return lookupNanos;
+		}
+	}
+
+	private final WebDriver driver;
+	private final boolean enabled;
+
+	public BrowserWaitEngine(WebDriver driver) {
+		this.driver = driver;
+		this.enabled = driver instanceof JavascriptExecutor
+				&& "browser".equalsIgnoreCase(ConfigManager.get().getString("wait.engine", "browser"));
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/** Wait in the page for an element located by an XPath or CSS locator
+	 *
+	 * @param locator
+	 * @param condition
+	 * @param text only used by {@link Condition#TEXT}
+	 * @param timeout
+	 * @return
+	 */
+	public Result await(By locator, Condition condition, String text, Duration timeout) {
+		if (!(locator instanceof By.Remotable)) {
+			return Result.NOT_HANDLED;
+		}
+		By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+		String using = parameters.using();
+		if (!"xpath".equals(using) && !"css selector".equals(using)) {
+			return Result.NOT_HANDLED;
+		}
+		return run(String.valueOf(parameters.value()), using, condition, text, timeout,
+				"element located by " + locator);
+	}
+
+	/** Wait in the page for an already located element
+	 *
+	 * @param element
+	 * @param condition
+	 * @param timeout
+	 * @return
+	 */
+	public Result await(WebElement element, Condition condition, Duration timeout) {
+		return run(element, "element", condition, null, timeout, "element");
+	}
+
+	private Result run(Object target, String using, Condition condition, String text, Duration timeout,
+			String description) {
+		if (!enabled) {
+			return Result.NOT_HANDLED;
+		}
+		Object outcome;
+		try {
+			ensureScriptTimeout();
+			outcome = ((JavascriptExecutor) driver).executeAsyncScript(WAIT_SCRIPT, target, using, condition.name(),
+					text == null ? "" : text, timeout.toMillis());
+		} catch (NoSuchElementException | StaleElementReferenceException e) {
+			return Result.NOT_HANDLED;
+		} catch (WebDriverException e) {
+			log.debug("In-browser wait unavailable, falling back to polling: {}", e.getMessage());
+			return Result.NOT_HANDLED;
+		}
+		if (!(outcome instanceof Map)) {
+			return Result.NOT_HANDLED;
+		}
+		Map<?, ?> result = (Map<?, ?>) outcome;
+		String status = String.valueOf(result.get("status"));
+		if ("timeout".equals(status)) {
+			throw new TimeoutException("Expected condition failed: waiting for " + condition.name().toLowerCase()
+					+ " of " + description + " (tried for " + timeout.getSeconds() + " second(s) in the browser)");
+		}
+		if (!"ok".equals(status)) {
+			log.debug("In-browser wait failed, falling back to polling: {}", result.get("message"));
+			return Result.NOT_HANDLED;
+		}
+		Object element = result.get("element");
+		Object lookupMs = result.get("lookupMs");
+		return new Result(true, element instanceof WebElement ? (WebElement) element : null,
+				"element".equals(using) || !(lookupMs instanceof Number) ? -1
+						: Math.round(((Number) lookupMs).doubleValue() * 1_000_000));
+	}
+
+	/** Wait until the document is complete and no fetch/XHR has been in
+	 * flight for the quiet window, in a single async script call
+	 *
+	 * @param quietWindow
+	 * @param timeout
+	 * @return
+	 */
+	public Result awaitNetworkIdle(Duration quietWindow, Duration timeout) {
+		if (!(driver instanceof JavascriptExecutor)) {
+			return Result.NOT_HANDLED;
+		}
+		Object outcome;
+		try {
+			ensureScriptTimeout();
+			outcome = ((JavascriptExecutor) driver).executeAsyncScript(NETWORK_IDLE_SCRIPT, quietWindow.toMillis(),
+					timeout.toMillis(), networkIgnore());
+		} catch (WebDriverException e) {
+			log.debug("Network idle detection unavailable, falling back to polling: {}", e.getMessage());
+			return Result.NOT_HANDLED;
+		}
+		if (!(outcome instanceof Map)) {
+			return Result.NOT_HANDLED;
+		}
+		Map<?, ?> result = (Map<?, ?>) outcome;
+		if ("timeout".equals(String.valueOf(result.get("status")))) {
+			// long polling, chat widgets and late beacons can keep a page busy
+			// forever; let the caller fall back to document.readyState
+			log.info("Page did not reach network idle within {} ms (readyState={}, requests in flight={})",
+					timeout.toMillis(), result.get("readyState"), result.get("inflight"));
+			return Result.NOT_HANDLED;
+		}
+		log.debug("Network idle after {} ms", result.get("waited"));
+		return new Result(true, null, -1);
+	}
+
+	/** Register the network instrumentation for every new document so requests
+	 * made before the first readiness check are counted too (Chromium only)
+	 *
+	 * @param driver
+	 */
+	public static void installNetworkInstrumentation(WebDriver driver) {
+		if (!(driver instanceof HasCdp)) {
+			return;
+		}
+		try {
+			((HasCdp) driver).executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
+					Collections.<String, Object>singletonMap("source", "window.__argosNetworkIgnore = "
+							+ new Json().toJson(networkIgnore()) + ";" + NETWORK_INSTRUMENTATION));
+		} catch (WebDriverException e) {
+			log.warn("Unable to pre-install network instrumentation: {}", e.getMessage());
+		}
+	}
+
+	/** URL fragments from page.networkIgnore that network idle detection does not wait for
+	 *
+	 * @return
+	 */
+	static List<String> networkIgnore() {
+		List<String> patterns = new ArrayList<>();
+		for (String pattern : ConfigManager.get().getString("page.networkIgnore", DEFAULT_NETWORK_IGNORE).split(",")) {
+			if (!pattern.trim().isEmpty()) {
+				patterns.add(pattern.trim());
+			}
+		}
+		return patterns;
+	}
+
+	private void ensureScriptTimeout() {
+		if (configuredDrivers.put(driver, Boolean.TRUE) == null) {
+			driver.manage().timeouts().scriptTimeout(SCRIPT_TIMEOUT);
+		}
+	}
+}
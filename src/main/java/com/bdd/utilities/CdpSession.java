@@ -0,0 +1,131 @@
+package com.bdd.utilities;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One DevTools connection per browser with removable event subscriptions.
+ *
+ * Selenium can only clear all DevTools listeners at once, which does not
+ * work for pooled browsers shared by several scenario-scoped consumers. This
+ * class registers a single Selenium listener per CDP event name and fans the
+ * raw event parameters out to its own subscribers, each of which can be
+ * closed on its own. Events and results are plain maps so the code does not
+ * depend on a particular CDP version.
+ *
+ * Handlers run on Selenium's DevTools event thread and must not block;
+ * hand slow work, including further {@link #send} calls, to an executor.
+ *
+ */
+public final class CdpSession {
+
+	protected static Logger log = LoggerFactory.getLogger(CdpSession.class);
+
+	private static final Map<WebDriver, CdpSession> sessions = Collections.synchronizedMap(new WeakHashMap<>());
+	private static final Map<WebDriver, Boolean> probed = new WeakHashMap<>();
+
+	private final DevTools devTools;
+	private final Map<String, List<Consumer<Map<String, Object>>>> subscribers = new ConcurrentHashMap<>();
+
+	private CdpSession(DevTools devTools) {
+		this.devTools = devTools;
+		devTools.createSessionIfThereIsNotOne();
+	}
+
+	/** Whether DevTools is available for the driver. Remote sessions only
+	 * have it when the Grid exposes se:cdp, so they are probed once.
+	 *
+	 * @param driver
+	 * @return
+	 */
+	public static boolean isSupported(WebDriver driver) {
+		if (!(driver instanceof HasDevTools) || sessions.containsKey(driver)) {
+			return driver instanceof HasDevTools;
+		}
+		synchronized (probed) {
+			Boolean available = probed.get(driver);
+			if (available == null) {
+				available = ((HasDevTools) driver).maybeGetDevTools().isPresent();
+				probed.put(driver, available);
+				if (!available) {
+					log.info("DevTools is not available for this {} session, CDP features are off",
+							driver.getClass().getSimpleName());
+				}
+			}
+			return available;
+		}
+	}
+
+	/** The session for a driver, opened on first use
+	 *
+	 * @param driver
+	 * @return
+	 */
+	public static CdpSession of(WebDriver driver) {
+		if (!(driver instanceof HasDevTools)) {
+			throw new UnsupportedOperationException("DevTools is not available for " + driver.getClass().getSimpleName());
+		}
+		synchronized (sessions) {
+			return sessions.computeIfAbsent(driver, key -> new CdpSession(((HasDevTools) key).getDevTools()));
+		}
+	}
+
+	/** Send a raw CDP command and wait for its result
+	 *
+	 * @param method
+	 * @param params
+	 * @return
+	 */
+	public Map<String, Object> send(String method, Map<String, Object> params) {
+		return devTools.send(new Command<Map<String, Object>>(method, params, Json.MAP_TYPE));
+	}
+
+	/** Subscribe to a CDP event such as Network.responseReceived
+	 *
+	 * @param event
+	 * @param handler receives the event parameters
+	 * @return a subscription that stops delivery when closed
+	 */
+	public Subscription subscribe(String event, Consumer<Map<String, Object>> handler) {
+		List<Consumer<Map<String, Object>>> handlers = subscribers.computeIfAbsent(event, name -> {
+			List<Consumer<Map<String, Object>>> created = new CopyOnWriteArrayList<>();
+			devTools.addListener(new Event<Map<String, Object>>(name, input -> input.read(Json.MAP_TYPE)),
+					params -> dispatch(name, created, params));
+			return created;
+		});
+		handlers.add(handler);
+		return () -> handlers.remove(handler);
+	}
+
+	private static void dispatch(String event, List<Consumer<Map<String, Object>>> handlers, Map<String, Object> params) {
+		for (Consumer<Map<String, Object>> handler : handlers) {
+			try {
+				handler.accept(params);
+			} catch (RuntimeException e) {
+				log.warn("CDP {} handler failed: {}", event, e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Handle for one event subscription.
+	 */
+	public interface Subscription extends AutoCloseable {
+		@Override
+		void close();
+	}
+}
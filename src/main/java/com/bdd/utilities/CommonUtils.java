@@ -2,9 +2,6 @@ package com.bdd.utilities;
 
 
 
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.util.Properties;
 import java.util.Random;
 
 /**
@@ -34,16 +31,14 @@ public class CommonUtils {
 
  
 
+    /**
+     * Returns a configuration value from the cached {@link ConfigManager} snapshot
+     *
+     * @param prop property name
+     * @return value, or null when not configured
+     */
     public static String getProperty(String prop){
-        Properties properties = new Properties();
-        try {
-            FileInputStream fileInputStream = new FileInputStream(System.getProperty("user.dir")+"/src/main/java/resources/config.properties");
-            properties.load(fileInputStream);
-            fileInputStream.close();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-       return properties.getProperty(prop);
+       return ConfigManager.get().get(prop);
     }
 }
 
@@ -0,0 +1,144 @@
+package com.bdd.utilities;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable snapshot of the framework configuration.
+ *
+ * A snapshot is built once by {@link ConfigManager} and can be shared freely
+ * between threads, so lookups on the scenario hot path are plain map reads.
+ *
+ */
+public final class Config {
+
+	private final Map<String, String> values;
+	private final long loadedAt;
+
+	Config(Map<String, String> values) {
+		this.values = Collections.unmodifiableMap(new TreeMap<>(values));
+		this.loadedAt = System.currentTimeMillis();
+	}
+
+	/** Get a raw value, or null when the key is not configured
+	 *
+	 * @param key
+	 * @return
+	 */
+	public String get(String key) {
+		return values.get(key);
+	}
+
+	/** Get a trimmed value, falling back to the default when missing or blank
+	 *
+	 * @param key
+	 * @param defaultValue
+	 * @return
+	 */
+	public String getString(String key, String defaultValue) {
+		String value = values.get(key);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		return value.trim();
+	}
+
+	/** Get a mandatory value
+	 *
+	 * @param key
+	 * @return
+	 */
+	public String getRequired(String key) {
+		String value = getString(key, null);
+		if (value == null) {
+			throw new IllegalStateException("Missing required configuration property: " + key);
+		}
+		return value;
+	}
+
+	public int getInt(String key, int defaultValue) {
+		String value = getString(key, null);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Property " + key + " is not an integer: " + value, e);
+		}
+	}
+
+	public long getLong(String key, long defaultValue) {
+		String value = getString(key, null);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Property " + key + " is not a number: " + value, e);
+		}
+	}
+
+	public boolean getBoolean(String key, boolean defaultValue) {
+		String value = getString(key, null);
+		return value == null ? defaultValue : Boolean.parseBoolean(value);
+	}
+
+	/** Get a duration. Plain numbers are seconds, suffixes ms/s/m are supported
+	 * and ISO-8601 values such as PT1M are accepted as well.
+	 *
+	 * @param key
+	 * @param defaultValue
+	 * @return
+	 */
+	public Duration getDuration(String key, Duration defaultValue) {
+		String value = getString(key, null);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return parseDuration(value);
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Property " + key + " is not a duration: " + value, e);
+		}
+	}
+
+	/** All keys starting with the prefix, with the prefix removed
+	 *
+	 * @param prefix
+	 * @return
+	 */
+	public Map<String, String> getWithPrefix(String prefix) {
+		Map<String, String> result = new TreeMap<>();
+		for (Map.Entry<String, String> entry : values.entrySet()) {
+			if (entry.getKey().startsWith(prefix)) {
+				result.put(entry.getKey().substring(prefix.length()), entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	public long getLoadedAt() {
+		return loadedAt;
+	}
+
+	static Duration parseDuration(String value) {
+		String text = value.trim().toLowerCase();
+		if (text.startsWith("p")) {
+			return Duration.parse(text.toUpperCase());
+		}
+		if (text.endsWith("ms")) {
+			return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2).trim()));
+		}
+		if (text.endsWith("s")) {
+			return Duration.ofSeconds(Long.parseLong(text.substring(0, text.length() - 1).trim()));
+		}
+		if (text.endsWith("m")) {
+			return Duration.ofMinutes(Long.parseLong(text.substring(0, text.length() - 1).trim()));
+		}
+		return Duration.ofSeconds(Long.parseLong(text));
+	}
+}
@@ -0,0 +1,195 @@
+package com.bdd.utilities;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads config.properties once and hands out immutable {@link Config} snapshots.
+ *
+ * Values are layered: the properties file first, then environment variables
+ * (timeout.explicit can be overridden by TIMEOUT_EXPLICIT, argos_url by
+ * ARGOS_URL; dots and underscores in keys are interchangeable and case is
+ * ignored), then system properties (-Dtimeout.explicit=20).
+ *
+ * Set config.reload.enabled=true to poll the file and swap in a fresh
+ * snapshot when it changes. When the working directory is the project, the
+ * source file under src/main/java/resources is watched and read instead of
+ * the copy in target/classes, so edits take effect without a rebuild.
+ *
+ */
+public final class ConfigManager {
+
+	public static final String CONFIG_FILE_NAME = "config.properties";
+	private static final String SOURCE_CONFIG_PATH = "/src/main/java/resources/" + CONFIG_FILE_NAME;
+
+	protected static Logger log = LoggerFactory.getLogger(ConfigManager.class);
+
+	private static volatile Config current;
+	private static volatile File sourceFile;
+	private static volatile File watchedSource;
+	private static volatile long sourceLastModified;
+	private static ScheduledExecutorService watcher;
+
+	private ConfigManager() {
+		throw new IllegalStateException("ConfigManager class cannot be instantiated.");
+	}
+
+	/** Get the current configuration snapshot, loading it on first use
+	 *
+	 * @return
+	 */
+	public static Config get() {
+		Config config = current;
+		if (config == null) {
+			synchronized (ConfigManager.class) {
+				config = current;
+				if (config == null) {
+					config = load();
+					current = config;
+					startWatcherIfEnabled(config);
+					config = current;
+				}
+			}
+		}
+		return config;
+	}
+
+	/** Force a reload of the configuration from its source
+	 *
+	 * @return the new snapshot
+	 */
+	public static synchronized Config reload() {
+		current = load();
+		log.info("Configuration reloaded from {}", sourceFile != null ? sourceFile : "classpath");
+		return current;
+	}
+
+	private static Config load() {
+		Properties properties = new Properties();
+		readBaseProperties(properties);
+
+		Map<String, String> values = new HashMap<>();
+		for (String name : properties.stringPropertyNames()) {
+			values.put(name, properties.getProperty(name));
+		}
+		Map<String, String> environment = new HashMap<>();
+		for (Map.Entry<String, String> env : System.getenv().entrySet()) {
+			environment.put(normalize(env.getKey()), env.getValue());
+		}
+		for (Map.Entry<String, String> entry : values.entrySet()) {
+			String override = environment.get(normalize(entry.getKey()));
+			if (override != null) {
+				entry.setValue(override);
+			}
+		}
+		Properties system = System.getProperties();
+		for (String name : system.stringPropertyNames()) {
+			values.put(name, system.getProperty(name));
+		}
+		return new Config(values);
+	}
+
+	private static String normalize(String key) {
+		return key.toLowerCase(Locale.ROOT).replace('_', '.');
+	}
+
+	private static void readBaseProperties(Properties properties) {
+		String explicitFile = System.getProperty("config.file");
+		if (explicitFile != null) {
+			readFile(new File(explicitFile), properties);
+			return;
+		}
+		if (watchedSource != null) {
+			readFile(watchedSource, properties);
+			return;
+		}
+		URL url = Thread.currentThread().getContextClassLoader().getResource(CONFIG_FILE_NAME);
+		if (url == null) {
+			url = ConfigManager.class.getClassLoader().getResource("resources/" + CONFIG_FILE_NAME);
+		}
+		if (url != null) {
+			File file = toFile(url);
+			if (file != null) {
+				readFile(file, properties);
+				return;
+			}
+			try (InputStream in = url.openStream()) {
+				properties.load(in);
+				sourceFile = null;
+			} catch (IOException e) {
+				throw new IllegalStateException("Unable to read " + url, e);
+			}
+			return;
+		}
+		readFile(new File(System.getProperty("user.dir") + SOURCE_CONFIG_PATH), properties);
+	}
+
+	private static void readFile(File file, Properties properties) {
+		try (InputStream in = new FileInputStream(file)) {
+			properties.load(in);
+			sourceFile = file;
+			sourceLastModified = file.lastModified();
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to read configuration file " + file, e);
+		}
+	}
+
+	private static File toFile(URL url) {
+		if (!"file".equals(url.getProtocol())) {
+			return null;
+		}
+		try {
+			return new File(url.toURI());
+		} catch (URISyntaxException e) {
+			return null;
+		}
+	}
+
+	private static void startWatcherIfEnabled(Config config) {
+		if (!config.getBoolean("config.reload.enabled", false) || sourceFile == null || watcher != null) {
+			return;
+		}
+		File source = new File(System.getProperty("user.dir") + SOURCE_CONFIG_PATH);
+		if (System.getProperty("config.file") == null && source.isFile() && !source.equals(sourceFile)) {
+			// the build output copy only changes on the next build
+			watchedSource = source;
+			current = load();
+		}
+		long intervalMillis = config.getDuration("config.reload.interval", Duration.ofSeconds(5)).toMillis();
+		watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "config-reload");
+			thread.setDaemon(true);
+			return thread;
+		});
+		watcher.scheduleWithFixedDelay(ConfigManager::reloadIfChanged, intervalMillis, intervalMillis,
+				TimeUnit.MILLISECONDS);
+		log.info("Watching {} for configuration changes every {} ms", sourceFile, intervalMillis);
+	}
+
+	private static void reloadIfChanged() {
+		File file = sourceFile;
+		if (file == null || file.lastModified() == sourceLastModified) {
+			return;
+		}
+		try {
+			reload();
+		} catch (RuntimeException e) {
+			log.warn("Keeping previous configuration, reload failed: {}", e.getMessage());
+		}
+	}
+}
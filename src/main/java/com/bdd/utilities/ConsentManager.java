@@ -0,0 +1,248 @@
+package com.bdd.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Gets a new session past the cookie-consent prompt.
+ *
+ * In bypass mode the consent cookies are written into the browser before the
+ * first navigation, through CDP Network.setCookie on Chromium or a visit to
+ * the origin's robots.txt elsewhere, so the prompt never renders. The cookies
+ * come from consent.cookies, or are learned from the first session that had
+ * to click the prompt; only cookies whose names match consent.cookiePattern
+ * are learned, so trackers set in the same moment are not replayed. The
+ * prompt is injected by a script after load, so a seeded session still
+ * waits up to consent.promptWait for it, and the click flow remains the
+ * fallback whenever it shows up.
+ *
+ * The runners call {@link #writeReport()} after the suite to log the launch
+ * times and write them to target/consent-launches.csv.
+ *
+ */
+public final class ConsentManager {
+
+	protected static Logger log = LoggerFactory.getLogger(ConsentManager.class);
+
+	private static final By ACCEPT_BUTTON = By.id("explicit-consent-prompt-accept");
+
+	private static volatile List<Cookie> learnedCookies = Collections.emptyList();
+
+	private static final File REPORT = new File("target/consent-launches.csv");
+
+	private static final AtomicLong bypassCount = new AtomicLong();
+	private static final AtomicLong bypassNanos = new AtomicLong();
+	private static final AtomicLong clickCount = new AtomicLong();
+	private static final AtomicLong clickNanos = new AtomicLong();
+
+	private ConsentManager() {
+		throw new IllegalStateException("ConsentManager class cannot be instantiated.");
+	}
+
+	/** Open the url and make sure the consent prompt has been dealt with
+	 *
+	 * @param driver
+	 * @param url
+	 */
+	public static void open(WebDriver driver, String url) {
+		long start = System.nanoTime();
+		boolean seeded = isBypassEnabled() && seedCookies(driver, url);
+		driver.get(url);
+		List<WebElement> prompt = seeded ? awaitPrompt(driver) : driver.findElements(ACCEPT_BUTTON);
+		boolean clicked = false;
+		if (!seeded || !prompt.isEmpty()) {
+			if (seeded) {
+				log.info("Consent prompt shown despite seeded cookies, falling back to clicking it");
+			}
+			clickAccept(driver, url, prompt);
+			clicked = true;
+		}
+		long elapsed = System.nanoTime() - start;
+		if (clicked) {
+			clickCount.incrementAndGet();
+			clickNanos.addAndGet(elapsed);
+		} else {
+			bypassCount.incrementAndGet();
+			bypassNanos.addAndGet(elapsed);
+		}
+		log.info("Launched {} in {} ms ({})", url, TimeUnit.NANOSECONDS.toMillis(elapsed),
+				clicked ? "consent clicked" : "consent bypassed");
+	}
+
+	/** Wait a short while for the prompt to be injected
+	 *
+	 * @param driver
+	 * @return the displayed accept button, or an empty list when none appeared
+	 */
+	private static List<WebElement> awaitPrompt(WebDriver driver) {
+		Duration promptWait = ConfigManager.get().getDuration("consent.promptWait", Duration.ofSeconds(2));
+		Duration budget = ScenarioDeadline.budget(Timeouts.Action.LAUNCH, ACCEPT_BUTTON.toString());
+		WebDriverWait wait = new WebDriverWait(driver, promptWait.compareTo(budget) < 0 ? promptWait : budget);
+		try {
+			return Collections.singletonList(wait.until(ExpectedConditions.visibilityOfElementLocated(ACCEPT_BUTTON)));
+		} catch (TimeoutException e) {
+			return Collections.emptyList();
+		}
+	}
+
+	private static boolean isBypassEnabled() {
+		return "bypass".equalsIgnoreCase(ConfigManager.get().getString("consent.mode", "bypass"));
+	}
+
+	private static void clickAccept(WebDriver driver, String url, List<WebElement> prompt) {
+		Set<Cookie> before = new HashSet<>(driver.manage().getCookies());
+		WebDriverWait wait = new WebDriverWait(driver, ScenarioDeadline.budget(Timeouts.Action.LAUNCH, ACCEPT_BUTTON.toString()));
+		WebElement cookieAccept = prompt.isEmpty()
+				? wait.until(ExpectedConditions.visibilityOfElementLocated(ACCEPT_BUTTON))
+				: wait.until(ExpectedConditions.visibilityOf(prompt.get(0)));
+		wait.until(ExpectedConditions.elementToBeClickable(cookieAccept));
+		cookieAccept.click();
+		if (learnedCookies.isEmpty() && consentCookiesFromConfig(url).isEmpty()) {
+			learn(before, driver.manage().getCookies());
+		}
+	}
+
+	private static void learn(Set<Cookie> before, Set<Cookie> after) {
+		Pattern consentNames = Pattern.compile(ConfigManager.get().getString("consent.cookiePattern",
+				"(?i).*consent.*"));
+		List<Cookie> added = new ArrayList<>();
+		for (Cookie cookie : after) {
+			if (before.contains(cookie)) {
+				continue;
+			}
+			if (consentNames.matcher(cookie.getName()).matches()) {
+				added.add(cookie);
+			} else {
+				log.debug("Not learning cookie {}: not a consent cookie", cookie.getName());
+			}
+		}
+		if (!added.isEmpty()) {
+			learnedCookies = Collections.unmodifiableList(added);
+			log.info("Learned {} consent cookies for later sessions", added.size());
+		}
+	}
+
+	private static boolean seedCookies(WebDriver driver, String url) {
+		List<Cookie> cookies = consentCookiesFromConfig(url);
+		if (cookies.isEmpty()) {
+			cookies = learnedCookies;
+		}
+		if (cookies.isEmpty()) {
+			return false;
+		}
+		try {
+			if (driver instanceof HasCdp) {
+				for (Cookie cookie : cookies) {
+					((HasCdp) driver).executeCdpCommand("Network.setCookie", toCdpCookie(cookie, url));
+				}
+			} else {
+				URI origin = URI.create(url).resolve("/robots.txt");
+				driver.get(origin.toString());
+				for (Cookie cookie : cookies) {
+					driver.manage().addCookie(cookie);
+				}
+			}
+			return true;
+		} catch (RuntimeException e) {
+			log.warn("Unable to seed consent cookies, using the consent prompt: {}", e.getMessage());
+			return false;
+		}
+	}
+
+	private static Map<String, Object> toCdpCookie(Cookie cookie, String url) {
+		Map<String, Object> params = new HashMap<>();
+		params.put("name", cookie.getName());
+		params.put("value", cookie.getValue());
+		params.put("url", url);
+		if (cookie.getDomain() != null) {
+			params.put("domain", cookie.getDomain());
+		}
+		params.put("path", cookie.getPath() == null ? "/" : cookie.getPath());
+		params.put("secure", cookie.isSecure());
+		params.put("httpOnly", cookie.isHttpOnly());
+		if (cookie.getExpiry() != null) {
+			params.put("expires", cookie.getExpiry().getTime() / 1000);
+		}
+		return params;
+	}
+
+	/** Cookies from consent.cookies, written as name=value;name2=value2
+	 *
+	 * @param url
+	 * @return
+	 */
+	private static List<Cookie> consentCookiesFromConfig(String url) {
+		String configured = ConfigManager.get().getString("consent.cookies", "");
+		List<Cookie> cookies = new ArrayList<>();
+		for (String pair : configured.split(";")) {
+			int separator = pair.indexOf('=');
+			if (separator > 0) {
+				cookies.add(new Cookie.Builder(pair.substring(0, separator).trim(), pair.substring(separator + 1).trim())
+						.path("/").isSecure(url.startsWith("https")).build());
+			}
+		}
+		return cookies;
+	}
+
+	/** Launch counts and average launch time for bypassed and clicked sessions
+	 *
+	 * @return
+	 */
+	public static String statistics() {
+		long bypassed = bypassCount.get();
+		long clicked = clickCount.get();
+		long bypassAvg = bypassed == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(bypassNanos.get() / bypassed);
+		long clickAvg = clicked == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(clickNanos.get() / clicked);
+		long saved = bypassed == 0 || clicked == 0 ? 0 : (clickAvg - bypassAvg) * bypassed;
+		return String.format("Consent launches: bypassed=%d avg=%dms, clicked=%d avg=%dms, estimated saving=%dms",
+				bypassed, bypassAvg, clicked, clickAvg, saved);
+	}
+
+	/** Log the launch statistics and write them to target/consent-launches.csv
+	 * when at least one session was opened
+	 *
+	 */
+	public static void writeReport() {
+		long bypassed = bypassCount.get();
+		long clicked = clickCount.get();
+		if (bypassed + clicked == 0) {
+			return;
+		}
+		log.info(statistics());
+		REPORT.getParentFile().mkdirs();
+		try (PrintWriter out = new PrintWriter(REPORT, StandardCharsets.UTF_8.name())) {
+			out.println("mode,launches,avgMs");
+			out.println("bypassed," + bypassed + ","
+					+ (bypassed == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(bypassNanos.get() / bypassed)));
+			out.println("clicked," + clicked + ","
+					+ (clicked == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(clickNanos.get() / clicked)));
+		} catch (IOException e) {
+			log.warn("Unable to write {}: {}", REPORT, e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package com.bdd.utilities;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event covering one ElementHelper wait or action. A
+ * compound operation such as click(xpath) records its wait and act time in
+ * the same event.
+ */
+@Name("com.bdd.ElementAction")
+@Label("Element Action")
+@Category({ "Argos Automation", "ElementHelper" })
+@Description("A wait or interaction performed through ElementHelper")
+public class ElementActionEvent extends Event {
+
+	@Label("Action")
+	String action;
+
+	@Label("Locator")
+	String locator;
+
+	@Label("Wait Type")
+	String waitType;
+
+	@Label("Time Waiting")
+	@Timespan(Timespan.NANOSECONDS)
+	long waitTime;
+
+	@Label("Time Acting")
+	@Timespan(Timespan.NANOSECONDS)
+	long actTime;
+
+	@Label("Timeout Hit")
+	boolean timeoutHit;
+}
@@ -0,0 +1,58 @@
+package com.bdd.utilities;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.openqa.selenium.WebElement;
+
+/**
+ * Snapshot of one element read by {@link ElementHelper#readAll}: its text,
+ * visibility and requested attributes, plus the element itself for follow-up
+ * actions such as clicking.
+ *
+ */
+public final class ElementData {
+
+	private final WebElement element;
+	private final String text;
+	private final boolean visible;
+	private final Map<String, String> attributes;
+
+	ElementData(WebElement element, String text, boolean visible, Map<String, String> attributes) {
+		this.element = element;
+		this.text = text;
+		this.visible = visible;
+		this.attributes = Collections.unmodifiableMap(attributes);
+	}
+
+	public WebElement getElement() {
+		return element;
+	}
+
+	/** Rendered text, empty for hidden elements. Options of a native select
+	 * count as shown when the select is and give their whitespace-normalised
+	 * text, as WebElement.getText() does; other elements use innerText.
+	 *
+	 * @return
+	 */
+	public String getText() {
+		return text;
+	}
+
+	public boolean isVisible() {
+		return visible;
+	}
+
+	public String getAttribute(String name) {
+		return attributes.get(name);
+	}
+
+	public Map<String, String> getAttributes() {
+		return attributes;
+	}
+
+	@Override
+	public String toString() {
+		return "ElementData[text=" + text + ", visible=" + visible + ", attributes=" + attributes + "]";
+	}
+}
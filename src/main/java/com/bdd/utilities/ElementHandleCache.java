@@ -0,0 +1,199 @@
+package com.bdd.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reuses the element behind a @FindBy field instead of finding it again on
+ * every call.
+ *
+ * The first call on the field resolves the element and keeps it. Later calls
+ * go straight to the kept element; if the page has re-rendered it since, the
+ * browser answers with a stale element error, the element is resolved again
+ * and the call is retried once. Staleness therefore costs nothing until it
+ * happens. The raw element handed out by getWrappedElement (to Actions,
+ * Select and scripts) is checked with one isEnabled call first, since those
+ * callers get no retry. List fields are not cached because their length can
+ * change.
+ *
+ * Hits, lookups and stale retries are counted per locator and written to
+ * target/element-cache-stats.csv when the JVM exits.
+ *
+ */
+public final class ElementHandleCache {
+
+	protected static Logger log = LoggerFactory.getLogger(ElementHandleCache.class);
+
+	private static final File REPORT = new File("target/element-cache-stats.csv");
+	private static final Map<String, Counters> statistics = new ConcurrentHashMap<>();
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(ElementHandleCache::writeReport, "element-cache-statistics"));
+	}
+
+	private ElementHandleCache() {
+		throw new IllegalStateException("ElementHandleCache class cannot be instantiated.");
+	}
+
+	public static boolean isEnabled() {
+		return ConfigManager.get().getBoolean("element.cache.enabled", true);
+	}
+
+	/** Proxy handler for a single-element field
+	 *
+	 * @param locator
+	 * @param key locator name used in the statistics
+	 * @return
+	 */
+	public static InvocationHandler handler(ElementLocator locator, String key) {
+		return new CachingElementHandler(locator, statistics.computeIfAbsent(key, Counters::new));
+	}
+
+	/** Statistics table ordered by number of calls
+	 *
+	 * @return
+	 */
+	public static List<String> report() {
+		List<Counters> all = new ArrayList<>(statistics.values());
+		all.sort(Comparator.comparingLong(Counters::calls).reversed());
+		List<String> lines = new ArrayList<>();
+		lines.add("locator,calls,hits,lookups,staleRetries,hitRate");
+		long hits = 0;
+		long calls = 0;
+		for (Counters counters : all) {
+			hits += counters.hits.get();
+			calls += counters.calls();
+			lines.add(String.format("\"%s\",%d,%d,%d,%d,%.1f%%", counters.locator.replace("\"", "\"\""),
+					counters.calls(), counters.hits.get(), counters.lookups.get(), counters.stale.get(),
+					counters.hitRate()));
+		}
+		lines.add(String.format("\"(all)\",%d,%d,,,%.1f%%", calls, hits, calls == 0 ? 0.0 : 100.0 * hits / calls));
+		return lines;
+	}
+
+	private static void writeReport() {
+		if (statistics.isEmpty()) {
+			return;
+		}
+		List<String> lines = report();
+		REPORT.getParentFile().mkdirs();
+		try (PrintWriter out = new PrintWriter(REPORT, StandardCharsets.UTF_8.name())) {
+			for (String line : lines) {
+				out.println(line);
+			}
+		} catch (IOException e) {
+			log.warn("Unable to write {}: {}", REPORT, e.getMessage());
+		}
+		log.info("Element handle cache: {}", lines.get(lines.size() - 1));
+	}
+
+	/**
+	 * Same contract as PageFactory's LocatingElementHandler, with the
+	 * resolved element kept between calls.
+	 */
+	private static final class CachingElementHandler implements InvocationHandler {
+		private final ElementLocator locator;
+		private final Counters counters;
+		private WebElement element;
+
+		CachingElementHandler(ElementLocator locator, Counters counters) {
+			this.locator = locator;
+			this.counters = counters;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if ("toString".equals(method.getName()) && method.getParameterCount() == 0) {
+				return "Proxy element for: " + locator.toString();
+			}
+			WebElement target = element;
+			boolean cached = target != null;
+			if (cached) {
+				counters.hits.incrementAndGet();
+			} else {
+				target = resolve();
+			}
+			if ("getWrappedElement".equals(method.getName())) {
+				// callers use the raw element outside this handler, so make
+				// sure it is still attached before handing it out
+				return cached && isStale(target) ? reresolve() : target;
+			}
+			try {
+				return method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				if (!(e.getCause() instanceof StaleElementReferenceException) || !cached) {
+					throw e.getCause();
+				}
+			}
+			try {
+				return method.invoke(reresolve(), args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+
+		private static boolean isStale(WebElement target) {
+			try {
+				target.isEnabled();
+				return false;
+			} catch (StaleElementReferenceException e) {
+				return true;
+			}
+		}
+
+		/** Replace a cached handle that turned out to be stale, counting it as a miss */
+		private WebElement reresolve() {
+			counters.hits.decrementAndGet();
+			counters.stale.incrementAndGet();
+			return resolve();
+		}
+
+		private WebElement resolve() {
+			element = null;
+			counters.lookups.incrementAndGet();
+			WebElement resolved = locator.findElement();
+			element = resolved;
+			return resolved;
+		}
+	}
+
+	/**
+	 * Call counters for one locator.
+	 */
+	private static final class Counters {
+		private final String locator;
+		private final AtomicLong hits = new AtomicLong();
+		private final AtomicLong lookups = new AtomicLong();
+		private final AtomicLong stale = new AtomicLong();
+
+		Counters(String locator) {
+			this.locator = locator;
+		}
+
+		long calls() {
+			return hits.get() + lookups.get();
+		}
+
+		double hitRate() {
+			long calls = calls();
+			return calls == 0 ? 0.0 : 100.0 * hits.get() / calls;
+		}
+	}
+}
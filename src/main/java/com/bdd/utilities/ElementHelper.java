@@ -10,27 +10,125 @@ import org.openqa.selenium.support.ui.WebDriverWait;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.bdd.utilities.BrowserWaitEngine.Condition;
+import com.bdd.utilities.Timeouts.Action;
 
 
-import java.awt.*;
-import java.awt.event.KeyEvent;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
-
-
+import java.util.function.Function;
+
+
+/**
+ * Wrapper around common WebDriver interactions.
+ *
+ * An instance belongs to one driver and therefore to one scenario thread.
+ * Every wait takes its timeout from the action type (timeout.find,
+ * timeout.visibility, ...) capped by what is left of the scenario budget,
+ * see {@link ScenarioDeadline}.
+ *
+ * Waits and actions emit {@link ElementActionEvent}s through {@link Telemetry}
+ * so a flight recording shows where scenario time goes.
+ */
 public class ElementHelper {
-	private WebDriver driver;
-	private WebDriverWait wait;
+
+	private static final String READ_ALL_SCRIPT = "var using = arguments[0], value = arguments[1], names = arguments[2], nodes = [];"
+			+ "if (using === 'xpath') {"
+			+ "  var snapshot = document.evaluate(value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);"
+			+ "  for (var i = 0; i < snapshot.snapshotLength; i++) { nodes.push(snapshot.snapshotItem(i)); }"
+			+ "} else if (using === 'css selector') {"
+			+ "  nodes = Array.prototype.slice.call(document.querySelectorAll(value));"
+			+ "} else {"
+			+ "  nodes = value;"
+			+ "}"
+			+ "function shown(el) {"
+			+ "  var style = window.getComputedStyle(el), rect = el.getBoundingClientRect();"
+			+ "  return style.display !== 'none' && style.visibility !== 'hidden'"
+			+ "      && parseFloat(style.opacity) !== 0 && rect.width > 0 && rect.height > 0;"
+			+ "}"
+			+ "return nodes.map(function (el) {"
+			// options of a native select have no box of their own: like getText(), they are shown when their select is
+			+ "  var option = el.tagName === 'OPTION' || el.tagName === 'OPTGROUP', select = option ? el.closest('select') : null;"
+			+ "  var visible = option ? select !== null && shown(select) : shown(el);"
+			+ "  var attributes = {};"
+			+ "  for (var j = 0; j < names.length; j++) {"
+			+ "    var attribute = el.getAttribute(names[j]);"
+			+ "    if (attribute === null && names[j] in el && el[names[j]] != null) { attribute = String(el[names[j]]); }"
+			+ "    attributes[names[j]] = attribute;"
+			+ "  }"
+			+ "  var text = option ? (el.textContent || '').replace(/\\s+/g, ' ') : el.innerText || '';"
+			+ "  return { element: el, text: visible ? text.trim() : '', visible: visible, attributes: attributes };"
+			+ "});";
+
+	private final WebDriver driver;
+	private final BrowserWaitEngine browserWait;
+	private final BrowserInput input;
+	private static final String ELEMENT = "WebElement";
 	protected static Logger log = LoggerFactory.getLogger(ElementHelper.class);
 	
 	public ElementHelper(WebDriver driver) {
 		this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(50)); 
+		this.browserWait = new BrowserWaitEngine(driver);
+		this.input = new BrowserInput(driver);
+	}
 
+	/** Run a wait with the timeout budgeted for its action, turning a timeout
+	 * into a ScenarioTimeoutException once the scenario budget is spent
+	 * 
+	 * @param name
+	 * @param target
+	 * @param waitType
+	 * @param action
+	 * @param wait receives the timeout to use
+	 * @return
+	 */
+	private <T> T await(String name, String target, String waitType, Action action, Function<Duration, T> wait) {
+		Duration timeout = ScenarioDeadline.budget(action, target);
+		long start = System.nanoTime();
+		try {
+			return Telemetry.waitFor(name, target, waitType, () -> wait.apply(timeout));
+		} catch (TimeoutException e) {
+			throw ScenarioDeadline.explain(e, action, target, currentUrl());
+		} finally {
+			ScenarioDeadline.record(action, target, System.nanoTime() - start);
+		}
+	}
+
+	/** Wait in the page and record its locator evaluation time
+	 * 
+	 * @param xpath
+	 * @param locator
+	 * @param condition
+	 * @param text
+	 * @param timeout
+	 * @return
+	 */
+	private BrowserWaitEngine.Result awaitInPage(String xpath, By locator, Condition condition, String text,
+			Duration timeout) {
+		BrowserWaitEngine.Result result = browserWait.await(locator, condition, text, timeout);
+		if (result.getLookupNanos() >= 0) {
+			LocatorRegistry.record(xpath, LocatorRegistry.Source.PAGE, result.getLookupNanos());
+		}
+		return result;
+	}
+
+	private WebDriverWait waitFor(Duration timeout) {
+		return new WebDriverWait(driver, timeout);
+	}
+
+	private String currentUrl() {
+		try {
+			return driver.getCurrentUrl();
+		} catch (WebDriverException e) {
+			return null;
+		}
 	}
 
 	/** Find a clickable element using XPath
@@ -39,7 +137,15 @@ public class ElementHelper {
 	 * @return
 	 */
 	public WebElement findElement(String xpath) {
-		return wait.until(ExpectedConditions.elementToBeClickable(By.xpath(xpath)));
+		By locator = LocatorRegistry.xpath(xpath);
+		return await("findElement", xpath, "clickable", Action.FIND, timeout -> {
+			long start = System.nanoTime();
+			BrowserWaitEngine.Result result = awaitInPage(xpath, locator, Condition.CLICKABLE, null, timeout);
+			if (result.isHandled()) {
+				return result.getElement();
+			}
+			return waitFor(remaining(timeout, start)).until(ExpectedConditions.elementToBeClickable(LocatorRegistry.timed(xpath, locator)));
+		});
 	}
 
 	/** Wait for the invisibility of an element using XPath
@@ -48,7 +154,16 @@ public class ElementHelper {
 	 * @return
 	 */
 	public Boolean findElementInvisibilityOf(String xpath) {
-		return wait.until(ExpectedConditions.invisibilityOfElementLocated(By.xpath(xpath)));
+		By locator = LocatorRegistry.xpath(xpath);
+		return await("findElementInvisibilityOf", xpath, "invisible", Action.VISIBILITY,
+				timeout -> {
+					long start = System.nanoTime();
+					if (awaitInPage(xpath, locator, Condition.INVISIBLE, null, timeout).isHandled()) {
+						return true;
+					}
+					return waitFor(remaining(timeout, start))
+							.until(ExpectedConditions.invisibilityOfElementLocated(LocatorRegistry.timed(xpath, locator)));
+				});
 	}
 
 	/** Find a visible element using XPath
@@ -57,7 +172,17 @@ public class ElementHelper {
 	 * @return
 	 */
 	public WebElement findElementByVisible(String xpath) {
-		return wait.until(ExpectedConditions.visibilityOfElementLocated(By.xpath(xpath)));
+		By locator = LocatorRegistry.xpath(xpath);
+		return await("findElementByVisible", xpath, "visible", Action.VISIBILITY,
+				timeout -> {
+					long start = System.nanoTime();
+					BrowserWaitEngine.Result result = awaitInPage(xpath, locator, Condition.VISIBLE, null, timeout);
+					if (result.isHandled()) {
+						return result.getElement();
+					}
+					return waitFor(remaining(timeout, start))
+							.until(ExpectedConditions.visibilityOfElementLocated(LocatorRegistry.timed(xpath, locator)));
+				});
 	}
 
 	/**
@@ -66,7 +191,13 @@ public class ElementHelper {
 	 * @param element
 	 */
 	public void waitForElementVisible(WebElement element) {
-		wait.until(ExpectedConditions.visibilityOf(element));
+		await("waitForElementVisible", ELEMENT, "visible", Action.VISIBILITY, timeout -> {
+			long start = System.nanoTime();
+			if (browserWait.await(element, Condition.VISIBLE, timeout).isHandled()) {
+				return true;
+			}
+			return waitFor(remaining(timeout, start)).until(ExpectedConditions.visibilityOf(element));
+		});
 	}
 
 	/**
@@ -76,8 +207,9 @@ public class ElementHelper {
 	 */
 
 	public void waitForElementsVisible(List<WebElement> elements) {
-		wait.ignoring(StaleElementReferenceException.class);	
-		wait.until(ExpectedConditions.visibilityOfAllElements(elements));
+		await("waitForElementsVisible", ELEMENT, "visible", Action.VISIBILITY,
+				timeout -> waitFor(timeout).ignoring(StaleElementReferenceException.class)
+						.until(ExpectedConditions.visibilityOfAllElements(elements)));
 	}
 
 	/** Find a list of elements using a locator
@@ -86,7 +218,64 @@ public class ElementHelper {
 	 * @return
 	 */
 	public List<WebElement> findElements(By locator) {
-		return wait.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(locator));
+		return await("findElements", locator.toString(), "visible", Action.VISIBILITY,
+				timeout -> waitFor(timeout).until(ExpectedConditions.visibilityOfAllElementsLocatedBy(locator)));
+	}
+
+	/** Read text, visibility and attributes of every element matching the
+	 * locator in a single script call instead of one command per element
+	 * 
+	 * @param locator XPath or CSS locators are read in-page, others are located first
+	 * @param attributes attribute names to read
+	 * @return
+	 */
+	public List<ElementData> readAll(By locator, String... attributes) {
+		if (locator instanceof By.Remotable) {
+			By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+			String using = parameters.using();
+			if ("xpath".equals(using) || "css selector".equals(using)) {
+				return toElementData(((JavascriptExecutor) driver).executeScript(READ_ALL_SCRIPT, using,
+						String.valueOf(parameters.value()), Arrays.asList(attributes)));
+			}
+		}
+		return readAll(driver.findElements(locator), attributes);
+	}
+
+	/** Read text, visibility and attributes of already located elements in a
+	 * single script call
+	 * 
+	 * @param elements
+	 * @param attributes attribute names to read
+	 * @return
+	 */
+	public List<ElementData> readAll(List<WebElement> elements, String... attributes) {
+		List<WebElement> resolved = new ArrayList<>(elements);
+		if (resolved.isEmpty()) {
+			return new ArrayList<>();
+		}
+		return toElementData(((JavascriptExecutor) driver).executeScript(READ_ALL_SCRIPT, "elements", resolved,
+				Arrays.asList(attributes)));
+	}
+
+	private List<ElementData> toElementData(Object scriptResult) {
+		List<ElementData> output = new ArrayList<>();
+		if (!(scriptResult instanceof List)) {
+			return output;
+		}
+		for (Object item : (List<?>) scriptResult) {
+			Map<?, ?> row = (Map<?, ?>) item;
+			Map<String, String> attributes = new LinkedHashMap<>();
+			Object values = row.get("attributes");
+			if (values instanceof Map) {
+				for (Map.Entry<?, ?> entry : ((Map<?, ?>) values).entrySet()) {
+					attributes.put(String.valueOf(entry.getKey()),
+							entry.getValue() == null ? null : String.valueOf(entry.getValue()));
+				}
+			}
+			output.add(new ElementData((WebElement) row.get("element"), String.valueOf(row.get("text")),
+					Boolean.TRUE.equals(row.get("visible")), attributes));
+		}
+		return output;
 	}
 
 	/** Scroll to view an element using JavaScript
@@ -104,7 +293,9 @@ public class ElementHelper {
 	 * @return
 	 */
 	public List<WebElement> findElements(String xpath) {
-		return wait.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(By.xpath(xpath)));
+		By locator = LocatorRegistry.xpath(xpath);
+		return await("findElements", xpath, "visible", Action.VISIBILITY, timeout -> waitFor(timeout)
+				.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(LocatorRegistry.timed(xpath, locator))));
 	}
 
 	/** Click an element using XPath
@@ -112,10 +303,12 @@ public class ElementHelper {
 	 * @param xpath
 	 */
 	public void click(String xpath) {
-		WebElement element = findElement(xpath);
-		wait.until(ExpectedConditions.elementToBeClickable(element)).click();
+		Telemetry.action("click", xpath, () -> {
+			WebElement element = findElement(xpath);
+			Telemetry.act("click", xpath, element::click);
+		});
 		// Log the click action
-		log.info("Clicked element with XPath: " + xpath);
+		log.info("Clicked element with XPath: {}", xpath);
 	}
 
 	/**
@@ -125,11 +318,11 @@ public class ElementHelper {
 	 */
 	public void click(String fieldName, WebElement element) {
 		try {
-			element.click();
-			log.info("Clicked on " + fieldName);
+			Telemetry.act("click", fieldName, element::click);
+			log.info("Clicked on {}", fieldName);
 
 		} catch (Throwable t) {
-			log.info(t.getClass().getName() + " -> Error while clicking on " + fieldName + "\n" + t.getMessage());
+			log.info("{} -> Error while clicking on {}\n{}", t.getClass().getName(), fieldName, t.getMessage());
 
 		}
 	}
@@ -140,11 +333,13 @@ public class ElementHelper {
 	 * @param text
 	 */
 	public void enterText(String xpath, String text) {
-		WebElement element = findElement(xpath);
-		clearField(element);
-		element.sendKeys(text);
+		Telemetry.action("enterText", xpath, () -> {
+			WebElement element = findElement(xpath);
+			clearField(element);
+			Telemetry.act("enterText", xpath, () -> element.sendKeys(text));
+		});
 		// Log the type keys action
-		log.info("Typed '" + text + "' into element with XPath: " + xpath);
+		log.info("Typed '{}' into element with XPath: {}", text, xpath);
 	}
 
 	
@@ -156,14 +351,18 @@ public class ElementHelper {
 	public void enterData(WebElement element, String text) {
 
 		try {
-			waitForElementVisible(element);
-			element.clear();
-			element.sendKeys(text);
-			log.info("Typed '" + text + "' into element: " + element.toString());
+			Telemetry.action("enterData", ELEMENT, () -> {
+				waitForElementVisible(element);
+				Telemetry.act("enterData", ELEMENT, () -> {
+					element.clear();
+					element.sendKeys(text);
+				});
+			});
+			log.info("Typed '{}' into element", text);
 		}
 
 		catch (Throwable t) {
-			log.info(t.getClass().getName() + " -> Error while entering text " + "\n" + t.getMessage());
+			log.info("{} -> Error while entering text\n{}", t.getClass().getName(), t.getMessage());
 		}
 	}
 
@@ -177,7 +376,7 @@ public class ElementHelper {
 			element.isDisplayed();
 			return true;
 		} catch (Throwable t) {
-			log.info(t.getClass().getName() + " -> Error while verifying element is present " + "\n" + t.getMessage());
+			log.info("{} -> Error while verifying element is present\n{}", t.getClass().getName(), t.getMessage());
 			return false;
 		}
 	}
@@ -185,16 +384,14 @@ public class ElementHelper {
 	/** Clear a field using its XPath
 	 * 
 	 * @param xpath
-	 * @throws AWTException
 	 */
-	public void clearField(String xpath) throws AWTException {
-		WebElement element = findElement(xpath);
-		element.click();
-		String del = Keys.chord(Keys.CONTROL, "a") + Keys.DELETE;
-		element.sendKeys(del);
-		element.click();
+	public void clearField(String xpath) {
+		Telemetry.action("clearField", xpath, () -> {
+			WebElement element = findElement(xpath);
+			Telemetry.act("clearField", xpath, () -> clear(element));
+		});
 		// Log the clear field action
-		log.info("Cleared field with XPath: " + xpath);
+		log.info("Cleared field with XPath: {}", xpath);
 	}
 
 	/** Clear a field using a WebElement
@@ -202,12 +399,16 @@ public class ElementHelper {
 	 * @param element
 	 */
 	public void clearField(WebElement element) {
+		Telemetry.act("clearField", ELEMENT, () -> clear(element));
+		// Log the clear field action using WebElement
+		log.info("Cleared field");
+	}
+
+	private void clear(WebElement element) {
 		element.click();
 		String del = Keys.chord(Keys.CONTROL, "a") + Keys.DELETE;
 		element.sendKeys(del);
 		element.click();
-		// Log the clear field action using WebElement
-		log.info("Cleared field: " + element.toString());
 	}
 
 	/** Get the current selected value of a dropdown using its XPath
@@ -219,7 +420,7 @@ public class ElementHelper {
 		WebElement element = findElement(xpath);
 		String selectedValue = element.getAttribute("innerText");
 		// Log the get dropdown value action
-		log.info("Got dropdown selected value: " + selectedValue + " for element with XPath: " + xpath);
+		log.info("Got dropdown selected value: {} for element with XPath: {}", selectedValue, xpath);
 		return selectedValue;
 	}
 
@@ -232,18 +433,18 @@ public class ElementHelper {
 		List<String> output = new ArrayList<>();
 		List<WebElement> elementList;
 		try {
-			elementList = findElements(By.xpath("//ul//li"));
-			for (WebElement option : elementList) {
+			elementList = findElements(LocatorRegistry.xpath("//ul//li"));
+			for (ElementData option : readAll(elementList, "data-value")) {
 				output.add(option.getAttribute("data-value"));
 			}
 		} catch (Exception e) {
-			elementList = findElements(By.xpath("//*[contains(@id,'-option-')]"));
-			for (WebElement option : elementList) {
+			elementList = findElements(LocatorRegistry.xpath("//*[contains(@id,'-option-')]"));
+			for (ElementData option : readAll(elementList)) {
 				output.add(option.getText());
 			}
 		}
 		// Log the get all dropdown values action without clicking
-		log.info("Got all dropdown values without clicking for element with XPath: " + xpath);
+		log.info("Got all dropdown values without clicking for element with XPath: {}", xpath);
 		return output;
 	}
 
@@ -258,19 +459,19 @@ public class ElementHelper {
 		element.click();
 		List<WebElement> elementList;
 		try {
-			elementList = findElements(By.xpath("//ul//li"));
-			for (WebElement option : elementList) {
+			elementList = findElements(LocatorRegistry.xpath("//ul//li"));
+			for (ElementData option : readAll(elementList, "data-value")) {
 				output.add(option.getAttribute("data-value"));
 			}
 		} catch (Exception e) {
-			elementList = findElements(By.xpath("//*[contains(@id,'-option-')]"));
-			for (WebElement option : elementList) {
+			elementList = findElements(LocatorRegistry.xpath("//*[contains(@id,'-option-')]"));
+			for (ElementData option : readAll(elementList)) {
 				output.add(option.getText());
 			}
 		}
 		tapEsc();
 		// Log the get all dropdown values action
-		log.info("Got all dropdown values for WebElement: " + element.toString());
+		log.info("Got {} dropdown values", output.size());
 		return output;
 	}
 
@@ -279,9 +480,9 @@ public class ElementHelper {
 	 * @param xpath
 	 */
 	public void waitForElementVisible(String xpath) {
-		wait.until(ExpectedConditions.visibilityOfElementLocated(By.xpath(xpath)));
+		findElementByVisible(xpath);
 		// Log the wait for element visibility action
-		log.info("Waited for element visibility with XPath: " + xpath);
+		log.info("Waited for element visibility with XPath: {}", xpath);
 	}
 
 	/**
@@ -290,8 +491,14 @@ public class ElementHelper {
 	 * @param element
 	 */
 	public void waitForElementClickable(WebElement element) {
-		wait.until(ExpectedConditions.elementToBeClickable(element));
-		log.info("Waited for element to be clickable: " + element);
+		await("waitForElementClickable", ELEMENT, "clickable", Action.CLICK, timeout -> {
+			long start = System.nanoTime();
+			if (browserWait.await(element, Condition.CLICKABLE, timeout).isHandled()) {
+				return element;
+			}
+			return waitFor(remaining(timeout, start)).until(ExpectedConditions.elementToBeClickable(element));
+		});
+		log.info("Waited for element to be clickable");
 	}
 
 	/** Wait for text to be present in an element using XPath
@@ -300,9 +507,17 @@ public class ElementHelper {
 	 * @param text
 	 */
 	public void waitForTextPresent(String xpath, String text) {
-		wait.until(ExpectedConditions.textToBePresentInElementLocated(By.xpath(xpath), text));
+		By locator = LocatorRegistry.xpath(xpath);
+		await("waitForTextPresent", xpath, "text", Action.TEXT, timeout -> {
+			long start = System.nanoTime();
+			if (awaitInPage(xpath, locator, Condition.TEXT, text, timeout).isHandled()) {
+				return true;
+			}
+			return waitFor(remaining(timeout, start))
+					.until(ExpectedConditions.textToBePresentInElementLocated(LocatorRegistry.timed(xpath, locator), text));
+		});
 		// Log the wait for text present action
-		log.info("Waited for text '" + text + "' to be present in element with XPath: " + xpath);
+		log.info("Waited for text '{}' to be present in element with XPath: {}", text, xpath);
 	}
 
 	/**
@@ -310,17 +525,65 @@ public class ElementHelper {
 	 * @param title
 	 */
 	public void waitForTitleContains(String title) {
-		wait.until(ExpectedConditions.titleContains(title));
+		await("waitForTitleContains", "title", "title", Action.PAGE_LOAD,
+				timeout -> waitFor(timeout).until(ExpectedConditions.titleContains(title)));
 		// Log the wait for title contains action
-		log.info("Waited for title to contain: " + title);
+		log.info("Waited for title to contain: {}", title);
 	}
 
-	/** Wait for the page to load completely
+	/** Wait for the page to load completely.
+	 * Uses network-idle detection when page.readiness=network-idle, falling
+	 * back to document.readyState on what is left of the budget if the page
+	 * never goes quiet.
 	 * 
 	 */
 	public void waitForPageToLoad() {
-		WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(50));
-		//WebDriverWait wait = new WebDriverWait(driver, 50);
+		await("waitForPageToLoad", "document", "page-load", Action.PAGE_LOAD, timeout -> {
+			long start = System.nanoTime();
+			if ("network-idle".equalsIgnoreCase(ConfigManager.get().getString("page.readiness", "legacy"))
+					&& browserWait.awaitNetworkIdle(quietWindow(), timeout).isHandled()) {
+				log.info("Waited for the page to load completely");
+				return true;
+			}
+			waitForReadyStateAndJQuery(remaining(timeout, start));
+			return true;
+		});
+	}
+
+	/** Wait until the document is complete and no fetch/XHR request has been
+	 * in flight for page.quietWindow
+	 * 
+	 */
+	public void waitForNetworkIdle() {
+		await("waitForNetworkIdle", "document", "network-idle", Action.NETWORK_IDLE, timeout -> {
+			long start = System.nanoTime();
+			if (!browserWait.awaitNetworkIdle(quietWindow(), timeout).isHandled()) {
+				waitForReadyStateAndJQuery(remaining(timeout, start));
+				return true;
+			}
+			log.info("Waited for network idle");
+			return true;
+		});
+	}
+
+	private Duration quietWindow() {
+		return ConfigManager.get().getDuration("page.quietWindow", Duration.ofMillis(500));
+	}
+
+	/** What is left of a wait budget after an in-page attempt, so a polling
+	 * fallback never restarts the full timeout; WebDriverWait still checks once at zero
+	 *
+	 * @param timeout
+	 * @param startNanos
+	 * @return
+	 */
+	private static Duration remaining(Duration timeout, long startNanos) {
+		Duration left = timeout.minusNanos(System.nanoTime() - startNanos);
+		return left.isNegative() ? Duration.ZERO : left;
+	}
+
+	private void waitForReadyStateAndJQuery(Duration timeout) {
+		WebDriverWait wait = waitFor(timeout);
 		ExpectedCondition<Boolean> jQueryLoad = new ExpectedCondition<Boolean>() {
 			@Override
 			public Boolean apply(WebDriver driver) {
@@ -352,8 +615,7 @@ public class ElementHelper {
 	 * 
 	 */
 	public void tapEsc() {
-		Actions actions = new Actions(driver);
-		actions.sendKeys(Keys.ESCAPE).perform();
+		input.press(Keys.ESCAPE);
 		log.info("Pressed the ESC key");
 	}
 
@@ -361,9 +623,8 @@ public class ElementHelper {
 	 * 
 	 */
 	public void keyTab() {
-		Actions actions = new Actions(driver);
-		actions.sendKeys(Keys.TAB).perform();
-	
+		input.press(Keys.TAB);
+
 		log.info("Pressed the TAB key");
 	}
 
@@ -371,30 +632,24 @@ public class ElementHelper {
 	 * 
 	 */
 	public void keyBACK_SPACE() {
-		Actions actions = new Actions(driver);
-		actions.sendKeys(Keys.BACK_SPACE).perform();
+		input.press(Keys.BACK_SPACE);
 		// Log the press BACK_SPACE key action
 		log.info("Pressed the BACK_SPACE key");
 	}
 
-	/** Press the TAB key using Robot
+	/** Press the TAB key in this browser session
 	 * 
-	 * @throws AWTException
 	 */
-	public void presTab() throws AWTException {
-		Robot robot = new Robot();
-		robot.keyPress(KeyEvent.VK_TAB);
-		robot.keyRelease(KeyEvent.VK_TAB);
-		// Log the press TAB key action using Robot
-		log.info("Pressed the TAB key using Robot");
+	public void presTab() {
+		input.press(Keys.TAB);
+		log.info("Pressed the TAB key");
 	}
 
 	/** Simulate pressing the ENTER key
 	 * 
 	 */
 	public void tapEnter() {
-		Actions actions = new Actions(driver);
-		actions.sendKeys(Keys.ENTER).perform();
+		input.press(Keys.ENTER);
 		// Log the press ENTER key action
 		log.info("Pressed the ENTER key");
 	}
@@ -429,9 +684,8 @@ public class ElementHelper {
 		}
 		DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 		String formattedDate = date.format(formatter);
-		System.out.println("Previous Date: " + formattedDate);
 		
-		log.info("Got date with offset " + noOfDays + " days (" + previousOrNext + "): " + formattedDate);
+		log.info("Got date with offset {} days ({}): {}", noOfDays, previousOrNext, formattedDate);
 		return formattedDate;
 	}
 
@@ -440,35 +694,29 @@ public class ElementHelper {
 	 * 
 	 */
 	public void scrollToTop() {
-		Robot robot;
 		try {
-			robot = new Robot();
-			robot.keyPress(KeyEvent.VK_PAGE_UP);
-			robot.keyRelease(KeyEvent.VK_PAGE_UP);
+			input.scrollToTop();
 			log.info("Scrolled to the top of the page");
 		} catch (Exception e) {
-			log.info("Exception occurred while scrolling to the top of the page: " + e.getMessage());
-			e.printStackTrace();
+			log.info("Exception occurred while scrolling to the top of the page: {}", e.getMessage(), e);
 
 		}
 	}
 
-	/** Navigate to the top of the page using Robot
+	/** Scroll one page up by pressing PAGE_UP in this browser session
 	 * 
-	 * @throws AWTException
 	 */
-	public void navigateTop() throws AWTException {
-		Robot robot = new Robot();
-		robot.keyPress(KeyEvent.VK_PAGE_UP);
-		robot.keyRelease(KeyEvent.VK_PAGE_UP);
-		log.info("Navigated to the top of the page using Robot");
+	public void navigateTop() {
+		input.pageUp();
+		log.info("Navigated to the top of the page");
 	}
 
-	public void navigateDown() throws AWTException {
-		Robot robot = new Robot();
-		robot.keyPress(KeyEvent.VK_PAGE_DOWN);
-		robot.keyRelease(KeyEvent.VK_PAGE_DOWN);
-		log.info("Navigated to the down of the page using Robot");
+	/** Scroll one page down by pressing PAGE_DOWN in this browser session
+	 * 
+	 */
+	public void navigateDown() {
+		input.pageDown();
+		log.info("Navigated to the down of the page");
 	}
 
 	/** Generate a random string of a given length
@@ -487,7 +735,7 @@ public class ElementHelper {
 		}
 
 		String randomString = sb.toString();
-		log.info("Generated random string with length " + length + ": " + randomString);
+		log.info("Generated random string with length {}: {}", length, randomString);
 		return randomString;
 	}
 
@@ -496,9 +744,8 @@ public class ElementHelper {
 	 * @param element
 	 */
 	public void mouseHover(WebElement element) {
-		Actions actions = new Actions(driver);
-		actions.moveToElement(element).perform();
-		log.info("Performed mouse hover on element: " + element.toString());
+		Telemetry.act("mouseHover", ELEMENT, () -> new Actions(driver).moveToElement(element).perform());
+		log.info("Performed mouse hover on element");
 	}
 
 	/** Check if a list of strings is in ascending order
@@ -509,11 +756,11 @@ public class ElementHelper {
 	public static boolean isAscending(List<String> list) {
 		for (int i = 1; i < list.size(); i++) {
 			if (list.get(i).compareTo(list.get(i - 1)) < 0) {
-				System.out.println("Difference found: " + list.get(i - 1) + " > " + list.get(i));
+				log.info("Difference found: {} > {}", list.get(i - 1), list.get(i));
 				return false;
 			}
 		}
-		System.out.println("Checked if the list is in ascending order");
+		log.info("Checked if the list is in ascending order");
 		return true;
 	}
 
@@ -550,22 +797,25 @@ public class ElementHelper {
 	}
 
 	/**
-	 * Method to select from dropdown
+	 * Method to select from dropdown. A page-object element re-resolves
+	 * itself if the dropdown was re-rendered (see ElementHandleCache); an
+	 * element found directly gets one retry once it is clickable again.
 	 * 
 	 * @param element
 	 * @param value
 	 */
 	public void selectDropdownByValue(WebElement element, String value) {
-		try {
-			Select dropdown = new Select(element);
-			dropdown.selectByValue(value);
-			log.info("Selected value '" + value + "' from dropdown.");
-		} catch (StaleElementReferenceException e) {
-			wait.until(ExpectedConditions.refreshed(ExpectedConditions.elementToBeClickable(element)));
-			Select dropdown = new Select(element);
-			dropdown.selectByValue(value);
-			log.info("Selected value '" + value + "' from dropdown after retrying.");
-		}
+		Telemetry.action("selectDropdownByValue", ELEMENT, () -> {
+			try {
+				Telemetry.act("selectDropdownByValue", ELEMENT, () -> new Select(element).selectByValue(value));
+				log.info("Selected value '{}' from dropdown.", value);
+			} catch (StaleElementReferenceException e) {
+				await("selectDropdownByValue", ELEMENT, "refreshed", Action.CLICK, timeout -> waitFor(timeout)
+						.until(ExpectedConditions.refreshed(ExpectedConditions.elementToBeClickable(element))));
+				Telemetry.act("selectDropdownByValue", ELEMENT, () -> new Select(element).selectByValue(value));
+				log.info("Selected value '{}' from dropdown after retrying.", value);
+			}
+		});
 	}
 	/** Explicit wait for element to be clickable
 	 * 
@@ -573,9 +823,14 @@ public class ElementHelper {
 	 */
 	public void explicitWaitForClickable(WebElement element)	
 	{	
-		wait.withTimeout(Duration.ofSeconds(10));
-		wait.ignoring(StaleElementReferenceException.class);	
-		wait.until(ExpectedConditions.elementToBeClickable(element));	
+		await("explicitWaitForClickable", ELEMENT, "clickable", Action.CLICK, timeout -> {
+			long start = System.nanoTime();
+			if (browserWait.await(element, Condition.CLICKABLE, timeout).isHandled()) {
+				return element;
+			}
+			return waitFor(remaining(timeout, start)).ignoring(StaleElementReferenceException.class)
+					.until(ExpectedConditions.elementToBeClickable(element));
+		});
 	}	
 
 }
@@ -0,0 +1,54 @@
+package com.bdd.utilities;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * Starts a Java Flight Recorder recording for the whole run when
+ * jfr.enabled=true and writes it to jfr.file when the JVM exits.
+ *
+ * Open the file in JDK Mission Control and filter on the "Argos Automation"
+ * category to see steps, page-object methods and ElementHelper waits.
+ *
+ */
+public final class FlightRecording {
+
+	protected static Logger log = LoggerFactory.getLogger(FlightRecording.class);
+
+	private static Recording recording;
+
+	private FlightRecording() {
+		throw new IllegalStateException("FlightRecording class cannot be instantiated.");
+	}
+
+	public static synchronized void startIfEnabled() {
+		Config config = ConfigManager.get();
+		if (recording != null || !config.getBoolean("jfr.enabled", false)) {
+			return;
+		}
+		Path destination = Paths.get(config.getString("jfr.file", "target/argos-run.jfr"));
+		try {
+			Recording run = new Recording(Configuration.getConfiguration(config.getString("jfr.settings", "default")));
+			run.setName("argos-run");
+			run.enable(StepEvent.class);
+			run.enable(PageActionEvent.class);
+			run.enable(ElementActionEvent.class);
+			destination.toAbsolutePath().getParent().toFile().mkdirs();
+			run.setDestination(destination);
+			run.setDumpOnExit(true);
+			run.start();
+			recording = run;
+			log.info("Flight recording started, writing to {}", destination);
+		} catch (IOException | ParseException | IllegalStateException e) {
+			log.warn("Unable to start flight recording: {}", e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,453 @@
+package com.bdd.utilities;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * Records the network traffic of every scenario as a HAR file.
+ *
+ * With network.har.enabled=true the CDP Network events of the browser are
+ * turned into HAR 1.2 entries with the request, the response, their sizes
+ * and the blocked/dns/connect/ssl/send/wait/receive phases. An entry is
+ * appended to target/har/{scenario}.har as soon as its request finishes or
+ * fails, so only requests still in flight are held in memory.
+ *
+ * Every entry is tagged (_step) with the Gherkin step that was running when
+ * the request was sent, as published by {@link JfrStepListener}. The
+ * slowest and largest requests of each step are kept for a summary that is
+ * attached to the scenario.
+ *
+ * Browsers without DevTools access are left alone.
+ *
+ */
+public final class HarRecorder {
+
+	protected static Logger log = LoggerFactory.getLogger(HarRecorder.class);
+
+	private static final File HAR_DIR = new File("target/har");
+	private static final String BEFORE_STEPS = "(before steps)";
+
+	private static final Map<WebDriver, HarRecorder> recorders = Collections.synchronizedMap(new WeakHashMap<>());
+	private static final ThreadLocal<HarRecorder> current = new ThreadLocal<>();
+	private static final AtomicInteger sequence = new AtomicInteger();
+
+	private final int top;
+	private final Map<String, Pending> inFlight = new HashMap<>();
+	private final Map<String, StepTraffic> steps = new LinkedHashMap<>();
+	private volatile String step = BEFORE_STEPS;
+	private Writer out;
+	private File file;
+	private int entries;
+
+	private HarRecorder(int top) {
+		this.top = top;
+	}
+
+	public static boolean isEnabled() {
+		return ConfigManager.get().getBoolean("network.har.enabled", false);
+	}
+
+	/** Start listening to the network events of a new browser
+	 *
+	 * @param driver
+	 */
+	public static void install(WebDriver driver) {
+		if (!isEnabled()) {
+			return;
+		}
+		if (!CdpSession.isSupported(driver)) {
+			log.warn("HAR recording needs a Chromium browser with DevTools access, not recording");
+			return;
+		}
+		HarRecorder recorder = new HarRecorder(Math.max(1, ConfigManager.get().getInt("network.har.top", 5)));
+		CdpSession session = CdpSession.of(driver);
+		session.subscribe("Network.requestWillBeSent", recorder::requestWillBeSent);
+		session.subscribe("Network.responseReceived", recorder::responseReceived);
+		session.subscribe("Network.loadingFinished", recorder::loadingFinished);
+		session.subscribe("Network.loadingFailed", recorder::loadingFailed);
+		session.send("Network.enable", Collections.<String, Object>emptyMap());
+		recorders.put(driver, recorder);
+	}
+
+	/** Open a new HAR file when a scenario takes the browser
+	 *
+	 * @param driver
+	 */
+	public static void scenarioStarted(WebDriver driver) {
+		HarRecorder recorder = recorders.get(driver);
+		if (recorder == null) {
+			return;
+		}
+		String scenario = MDC.get("scenario") == null ? "scenario" : MDC.get("scenario");
+		recorder.open(new File(HAR_DIR, scenario.replaceAll("[^A-Za-z0-9]+", "-").toLowerCase() + "-"
+				+ sequence.incrementAndGet() + ".har"));
+		current.set(recorder);
+	}
+
+	/** Attribute requests sent from now on to a step of the scenario on this
+	 * thread
+	 *
+	 * @param text keyword and text of the step
+	 */
+	public static void stepStarted(String text) {
+		HarRecorder recorder = current.get();
+		if (recorder != null) {
+			recorder.step = text;
+		}
+	}
+
+	/** Close the scenario's HAR file
+	 *
+	 * @param driver
+	 * @return the slowest and largest requests per step, or null when the
+	 *         browser is not being recorded
+	 */
+	public static String scenarioFinished(WebDriver driver) {
+		current.remove();
+		HarRecorder recorder = recorders.get(driver);
+		return recorder == null ? null : recorder.close();
+	}
+
+	private synchronized void open(File har) {
+		inFlight.clear();
+		steps.clear();
+		step = BEFORE_STEPS;
+		entries = 0;
+		har.getParentFile().mkdirs();
+		try {
+			out = new OutputStreamWriter(new FileOutputStream(har), StandardCharsets.UTF_8);
+			out.write("{\"log\":{\"version\":\"1.2\",\"creator\":{\"name\":\"ArgosWebAutomation\",\"version\":\"0.0.1\"},"
+					+ "\"entries\":[\n");
+			file = har;
+		} catch (IOException e) {
+			log.warn("Unable to write {}: {}", har, e.getMessage());
+			out = null;
+		}
+	}
+
+	private synchronized String close() {
+		if (out == null) {
+			return null;
+		}
+		for (Pending pending : new ArrayList<>(inFlight.values())) {
+			pending.error = "unfinished when the scenario ended";
+			write(pending, pending.started);
+		}
+		inFlight.clear();
+		try {
+			out.write("\n]}}\n");
+			out.close();
+		} catch (IOException e) {
+			log.warn("Unable to finish {}: {}", file, e.getMessage());
+		}
+		out = null;
+		log.info("Recorded {} requests to {}", entries, file);
+		return summary();
+	}
+
+	@SuppressWarnings("unchecked")
+	private synchronized void requestWillBeSent(Map<String, Object> params) {
+		if (out == null) {
+			return;
+		}
+		String id = String.valueOf(params.get("requestId"));
+		Pending redirected = inFlight.remove(id);
+		if (redirected != null && params.get("redirectResponse") instanceof Map) {
+			// a redirect reuses the request id: the previous hop ends here
+			redirected.response = (Map<String, Object>) params.get("redirectResponse");
+			write(redirected, number(params.get("timestamp")));
+		}
+		Pending pending = new Pending();
+		pending.request = (Map<String, Object>) params.get("request");
+		pending.type = params.get("type") == null ? null : String.valueOf(params.get("type"));
+		pending.wallTime = number(params.get("wallTime"));
+		pending.started = number(params.get("timestamp"));
+		pending.step = step;
+		inFlight.put(id, pending);
+	}
+
+	@SuppressWarnings("unchecked")
+	private synchronized void responseReceived(Map<String, Object> params) {
+		Pending pending = inFlight.get(String.valueOf(params.get("requestId")));
+		if (pending != null) {
+			pending.response = (Map<String, Object>) params.get("response");
+		}
+	}
+
+	private synchronized void loadingFinished(Map<String, Object> params) {
+		Pending pending = inFlight.remove(String.valueOf(params.get("requestId")));
+		if (pending != null) {
+			pending.transferred = (long) number(params.get("encodedDataLength"));
+			write(pending, number(params.get("timestamp")));
+		}
+	}
+
+	private synchronized void loadingFailed(Map<String, Object> params) {
+		Pending pending = inFlight.remove(String.valueOf(params.get("requestId")));
+		if (pending != null) {
+			pending.error = params.get("blockedReason") != null ? "blocked: " + params.get("blockedReason")
+					: String.valueOf(params.get("errorText"));
+			write(pending, number(params.get("timestamp")));
+		}
+	}
+
+	private void write(Pending pending, double finished) {
+		Map<String, Object> entry = pending.toEntry(finished);
+		if (entries > 0) {
+			try {
+				out.write(",\n");
+			} catch (IOException e) {
+				return;
+			}
+		}
+		StringBuilder json = new StringBuilder();
+		try (JsonOutput output = new Json().newOutput(json)) {
+			output.setPrettyPrint(false).write(entry);
+		}
+		try {
+			out.write(json.toString());
+			out.flush();
+			entries++;
+		} catch (IOException e) {
+			log.warn("Unable to write {}: {}", file, e.getMessage());
+		}
+		steps.computeIfAbsent(pending.step, StepTraffic::new).add(new Request(pending.url(),
+				((Number) entry.get("time")).doubleValue(), pending.transferred, pending.status(), pending.error), top);
+	}
+
+	private String summary() {
+		StringBuilder text = new StringBuilder(String.format("%d requests recorded to %s", entries, file));
+		for (StepTraffic traffic : steps.values()) {
+			text.append(String.format("%n%n%s%n  %d requests, %d kB", traffic.step, traffic.requests,
+					traffic.bytes / 1024));
+			text.append(String.format("%n  slowest:"));
+			for (Request request : traffic.slowest) {
+				text.append(String.format("%n    %6.0f ms %s", request.millis, request));
+			}
+			text.append(String.format("%n  largest:"));
+			for (Request request : traffic.largest) {
+				text.append(String.format("%n    %6d kB %s", request.bytes / 1024, request));
+			}
+		}
+		return text.toString();
+	}
+
+	private static double number(Object value) {
+		return value instanceof Number ? ((Number) value).doubleValue() : 0;
+	}
+
+	/**
+	 * A request between requestWillBeSent and loadingFinished or
+	 * loadingFailed.
+	 */
+	private static final class Pending {
+		private Map<String, Object> request;
+		private Map<String, Object> response;
+		private String type;
+		private String step;
+		private double wallTime;
+		private double started;
+		private long transferred;
+		private String error;
+
+		String url() {
+			return request == null ? "" : String.valueOf(request.get("url"));
+		}
+
+		int status() {
+			return response == null ? 0 : (int) number(response.get("status"));
+		}
+
+		@SuppressWarnings("unchecked")
+		Map<String, Object> toEntry(double finished) {
+			Map<String, Object> timing = response == null ? null : (Map<String, Object>) response.get("timing");
+			Map<String, Object> phases = phases(timing, finished);
+			double time = 0;
+			for (String phase : new String[] { "blocked", "dns", "connect", "send", "wait", "receive" }) {
+				time += Math.max(0, ((Number) phases.get(phase)).doubleValue());
+			}
+			long headerBytes = response == null ? 0 : (long) number(response.get("encodedDataLength"));
+			long bodyBytes = Math.max(0, transferred - headerBytes);
+
+			Map<String, Object> harRequest = new LinkedHashMap<>();
+			Object postData = request == null ? null : request.get("postData");
+			harRequest.put("method", request == null ? "GET" : String.valueOf(request.get("method")));
+			harRequest.put("url", url());
+			harRequest.put("httpVersion", response == null ? "" : String.valueOf(response.get("protocol")));
+			harRequest.put("cookies", Collections.emptyList());
+			harRequest.put("headers", headers(request));
+			harRequest.put("queryString", Collections.emptyList());
+			harRequest.put("headersSize", -1);
+			harRequest.put("bodySize", postData == null ? 0 : String.valueOf(postData).length());
+
+			Map<String, Object> content = new LinkedHashMap<>();
+			content.put("size", bodyBytes);
+			content.put("mimeType", response == null ? "" : String.valueOf(response.get("mimeType")));
+			Map<String, Object> harResponse = new LinkedHashMap<>();
+			harResponse.put("status", status());
+			harResponse.put("statusText", response == null ? "" : String.valueOf(response.get("statusText")));
+			harResponse.put("httpVersion", harRequest.get("httpVersion"));
+			harResponse.put("cookies", Collections.emptyList());
+			harResponse.put("headers", headers(response));
+			harResponse.put("content", content);
+			harResponse.put("redirectURL", redirectUrl());
+			harResponse.put("headersSize", response == null ? -1 : headerBytes);
+			harResponse.put("bodySize", response == null ? -1 : bodyBytes);
+
+			Map<String, Object> entry = new LinkedHashMap<>();
+			entry.put("startedDateTime", Instant.ofEpochMilli((long) (wallTime * 1000)).toString());
+			entry.put("time", time);
+			entry.put("request", harRequest);
+			entry.put("response", harResponse);
+			entry.put("cache", Collections.emptyMap());
+			entry.put("timings", phases);
+			if (response != null && response.get("remoteIPAddress") != null) {
+				entry.put("serverIPAddress", String.valueOf(response.get("remoteIPAddress")));
+			}
+			entry.put("_step", step);
+			entry.put("_resourceType", type);
+			entry.put("_transferSize", transferred);
+			if (error != null) {
+				entry.put("_error", error);
+			}
+			return entry;
+		}
+
+		/** HAR phases from the CDP ResourceTiming, whose offsets are
+		 * milliseconds after timing.requestTime (seconds). Responses without
+		 * timing, such as cache hits, only have a receive phase.
+		 */
+		private Map<String, Object> phases(Map<String, Object> timing, double finished) {
+			Map<String, Object> phases = new LinkedHashMap<>();
+			double total = Math.max(0, (finished - started) * 1000);
+			if (timing == null) {
+				phases.put("blocked", -1);
+				phases.put("dns", -1);
+				phases.put("connect", -1);
+				phases.put("send", 0);
+				phases.put("wait", 0);
+				phases.put("receive", total);
+				phases.put("ssl", -1);
+				return phases;
+			}
+			double requestTime = number(timing.get("requestTime"));
+			double dnsStart = number(timing.get("dnsStart"));
+			double connectStart = number(timing.get("connectStart"));
+			double sslStart = number(timing.get("sslStart"));
+			double sendStart = number(timing.get("sendStart"));
+			double sendEnd = number(timing.get("sendEnd"));
+			double headersEnd = number(timing.get("receiveHeadersEnd"));
+			double firstActivity = dnsStart >= 0 ? dnsStart : connectStart >= 0 ? connectStart : sendStart;
+			phases.put("blocked", Math.max(0, (requestTime - started) * 1000) + Math.max(0, firstActivity));
+			phases.put("dns", dnsStart >= 0 ? number(timing.get("dnsEnd")) - dnsStart : -1);
+			phases.put("connect", connectStart >= 0 ? number(timing.get("connectEnd")) - connectStart : -1);
+			phases.put("send", Math.max(0, sendEnd - sendStart));
+			phases.put("wait", Math.max(0, headersEnd - sendEnd));
+			phases.put("receive", finished > 0 ? Math.max(0, (finished - requestTime) * 1000 - headersEnd) : 0);
+			// part of connect, so not added to the entry time
+			phases.put("ssl", sslStart >= 0 ? number(timing.get("sslEnd")) - sslStart : -1);
+			return phases;
+		}
+
+		private String redirectUrl() {
+			if (response != null && response.get("headers") instanceof Map) {
+				for (Map.Entry<?, ?> header : ((Map<?, ?>) response.get("headers")).entrySet()) {
+					if ("location".equalsIgnoreCase(String.valueOf(header.getKey()))) {
+						return String.valueOf(header.getValue());
+					}
+				}
+			}
+			return "";
+		}
+
+		private static List<Map<String, Object>> headers(Map<String, Object> message) {
+			List<Map<String, Object>> headers = new ArrayList<>();
+			if (message != null && message.get("headers") instanceof Map) {
+				for (Map.Entry<?, ?> header : ((Map<?, ?>) message.get("headers")).entrySet()) {
+					Map<String, Object> pair = new LinkedHashMap<>();
+					pair.put("name", String.valueOf(header.getKey()));
+					pair.put("value", String.valueOf(header.getValue()));
+					headers.add(pair);
+				}
+			}
+			return headers;
+		}
+	}
+
+	/**
+	 * What the summary keeps of one request.
+	 */
+	private static final class Request {
+		private final String url;
+		private final double millis;
+		private final long bytes;
+		private final int status;
+		private final String error;
+
+		Request(String url, double millis, long bytes, int status, String error) {
+			this.url = url;
+			this.millis = millis;
+			this.bytes = bytes;
+			this.status = status;
+			this.error = error;
+		}
+
+		@Override
+		public String toString() {
+			String shown = url.length() > 120 ? url.substring(0, 117) + "..." : url;
+			return (error != null ? "(" + error + ") " : status + " ") + shown;
+		}
+	}
+
+	/**
+	 * Request count, bytes and the top slowest and largest requests of one
+	 * step.
+	 */
+	private static final class StepTraffic {
+		private final String step;
+		private final List<Request> slowest = new ArrayList<>();
+		private final List<Request> largest = new ArrayList<>();
+		private int requests;
+		private long bytes;
+
+		StepTraffic(String step) {
+			this.step = step;
+		}
+
+		void add(Request request, int top) {
+			requests++;
+			bytes += request.bytes;
+			keep(slowest, request, Comparator.comparingDouble((Request r) -> r.millis).reversed(), top);
+			keep(largest, request, Comparator.comparingLong((Request r) -> r.bytes).reversed(), top);
+		}
+
+		private static void keep(List<Request> list, Request request, Comparator<Request> order, int top) {
+			list.add(request);
+			list.sort(order);
+			if (list.size() > top) {
+				list.remove(list.size() - 1);
+			}
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.bdd.utilities;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.TestStepFinished;
+import io.cucumber.plugin.event.TestStepStarted;
+
+/**
+ * Cucumber plugin that turns every Gherkin step into a {@link StepEvent}
+ * and starts the run-wide flight recording when jfr.enabled=true. It also
+ * tells the {@link HarRecorder} which step requests belong to.
+ *
+ * Register it in the runner: plugin = { "com.bdd.utilities.JfrStepListener" }
+ *
+ */
+public class JfrStepListener implements ConcurrentEventListener {
+
+	private final Map<UUID, StepEvent> running = new ConcurrentHashMap<>();
+
+	public JfrStepListener() {
+		FlightRecording.startIfEnabled();
+	}
+
+	@Override
+	public void setEventPublisher(EventPublisher publisher) {
+		publisher.registerHandlerFor(TestStepStarted.class, this::stepStarted);
+		publisher.registerHandlerFor(TestStepFinished.class, this::stepFinished);
+	}
+
+	private void stepStarted(TestStepStarted started) {
+		if (!(started.getTestStep() instanceof PickleStepTestStep)) {
+			return;
+		}
+		PickleStepTestStep step = (PickleStepTestStep) started.getTestStep();
+		String text = step.getStep().getKeyword() + step.getStep().getText();
+		HarRecorder.stepStarted(text);
+		StepEvent event = new StepEvent();
+		if (!event.isEnabled()) {
+			return;
+		}
+		event.scenario = started.getTestCase().getName();
+		event.step = text;
+		event.begin();
+		running.put(step.getId(), event);
+	}
+
+	private void stepFinished(TestStepFinished finished) {
+		StepEvent event = running.remove(finished.getTestStep().getId());
+		if (event != null) {
+			event.status = finished.getResult().getStatus().name();
+			event.commit();
+		}
+	}
+}
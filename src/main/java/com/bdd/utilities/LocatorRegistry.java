@@ -0,0 +1,259 @@
+package com.bdd.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Central registry of parsed locators with per-locator lookup statistics.
+ *
+ * Raw locator strings are parsed once and cached. Simple XPath expressions
+ * made only of tag names, child/descendant steps and exact attribute
+ * predicates, such as //button[@data-test='add-to-trolley-button-button'],
+ * are translated to the equivalent CSS selector. Anything else (positions,
+ * text(), contains(), unions) stays XPath.
+ *
+ * Lookups are timed, not the waits around them: a polled wait records each
+ * findElement round trip through {@link #timed(String, By)} as a webdriver
+ * lookup, and an in-page wait reports how long the page spent evaluating the
+ * locator per check as a page lookup. The two differ by a network round trip,
+ * so they are kept as separate series. The count and p50/p95 latency of each
+ * locator and source are written to target/locator-stats.csv and logged when
+ * the JVM exits, slowest first.
+ *
+ */
+public final class LocatorRegistry {
+
+	/** Where a lookup was timed */
+	public enum Source {
+		PAGE, WEBDRIVER
+	}
+
+	protected static Logger log = LoggerFactory.getLogger(LocatorRegistry.class);
+
+	private static final File REPORT = new File("target/locator-stats.csv");
+	private static final Pattern STEP = Pattern.compile("(//|/)([a-z][a-z0-9-]*|\\*)((?:\\[@[A-Za-z_][\\w-]*=(?:'[^']*'|\"[^\"]*\")\\])*)");
+	private static final Pattern PREDICATE = Pattern.compile("\\[@([A-Za-z_][\\w-]*)=(?:'([^']*)'|\"([^\"]*)\")\\]");
+
+	private static final Map<String, By> parsed = new ConcurrentHashMap<>();
+	private static final Map<String, Stats> statistics = new ConcurrentHashMap<>();
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(LocatorRegistry::writeReport, "locator-statistics"));
+	}
+
+	private LocatorRegistry() {
+		throw new IllegalStateException("LocatorRegistry class cannot be instantiated.");
+	}
+
+	/** Get the cached locator for an XPath expression, as CSS when it is safe
+	 *
+	 * @param xpath
+	 * @return
+	 */
+	public static By xpath(String xpath) {
+		return parsed.computeIfAbsent(xpath, key -> {
+			String css = toCss(key);
+			return css != null ? By.cssSelector(css) : By.xpath(key);
+		});
+	}
+
+	/** Translate an XPath locator built elsewhere (for example from @FindBy)
+	 *
+	 * @param locator
+	 * @return the CSS equivalent, or the locator unchanged
+	 */
+	public static By optimize(By locator) {
+		if (locator instanceof By.ByXPath) {
+			return xpath(String.valueOf(((By.ByXPath) locator).getRemoteParameters().value()));
+		}
+		return locator;
+	}
+
+	/** Wrap a locator so every lookup made through it, for example by each
+	 * poll of a WebDriverWait, is recorded against the raw locator
+	 *
+	 * @param locator
+	 * @param by
+	 * @return
+	 */
+	public static By timed(String locator, By by) {
+		return new TimedBy(locator, by);
+	}
+
+	public static void record(String locator, Source source, long nanos) {
+		statistics.computeIfAbsent(source + " " + locator, key -> new Stats(locator, source)).add(nanos);
+	}
+
+	/**
+	 * Converts a simple XPath to CSS, or returns null when that is not safe.
+	 *
+	 * @param xpath
+	 * @return
+	 */
+	static String toCss(String xpath) {
+		if (xpath == null || !xpath.startsWith("//")) {
+			return null;
+		}
+		Matcher step = STEP.matcher(xpath);
+		StringBuilder css = new StringBuilder();
+		int position = 0;
+		while (position < xpath.length()) {
+			if (!step.find(position) || step.start() != position) {
+				return null;
+			}
+			if (css.length() > 0) {
+				css.append("//".equals(step.group(1)) ? " " : " > ");
+			}
+			css.append(step.group(2));
+			Matcher predicate = PREDICATE.matcher(step.group(3));
+			while (predicate.find()) {
+				String value = predicate.group(2) != null ? predicate.group(2) : predicate.group(3);
+				css.append('[').append(predicate.group(1)).append("=\"")
+						.append(value.replace("\\", "\\\\").replace("\"", "\\\"")).append("\"]");
+			}
+			position = step.end();
+		}
+		return css.toString();
+	}
+
+	/** Statistics table ordered by p95 latency, slowest first
+	 *
+	 * @return
+	 */
+	public static List<String> report() {
+		List<Stats> all = new ArrayList<>(statistics.values());
+		all.sort(Comparator.comparingLong(Stats::p95).reversed());
+		List<String> lines = new ArrayList<>();
+		lines.add("locator,source,effective,lookups,p50Ms,p95Ms");
+		for (Stats stats : all) {
+			By effective = parsed.get(stats.locator);
+			lines.add(String.format("\"%s\",%s,\"%s\",%d,%.1f,%.1f", stats.locator.replace("\"", "\"\""),
+					stats.source.name().toLowerCase(), effective == null ? "" : effective.toString().replace("\"", "\"\""), stats.count.get(),
+					stats.p50() / 1_000_000.0, stats.p95() / 1_000_000.0));
+		}
+		return lines;
+	}
+
+	private static void writeReport() {
+		if (statistics.isEmpty()) {
+			return;
+		}
+		List<String> lines = report();
+		REPORT.getParentFile().mkdirs();
+		try (PrintWriter out = new PrintWriter(REPORT, StandardCharsets.UTF_8.name())) {
+			for (String line : lines) {
+				out.println(line);
+			}
+		} catch (IOException e) {
+			log.warn("Unable to write {}: {}", REPORT, e.getMessage());
+		}
+		log.info("Locator lookup statistics (slowest first):\n{}", String.join("\n", lines));
+	}
+
+	/**
+	 * Delegating locator that times each lookup.
+	 */
+	private static final class TimedBy extends By {
+		private final String locator;
+		private final By delegate;
+
+		TimedBy(String locator, By delegate) {
+			this.locator = locator;
+			this.delegate = delegate;
+		}
+
+		@Override
+		public WebElement findElement(SearchContext context) {
+			long start = System.nanoTime();
+			try {
+				return context.findElement(delegate);
+			} finally {
+				record(locator, Source.WEBDRIVER, System.nanoTime() - start);
+			}
+		}
+
+		@Override
+		public List<WebElement> findElements(SearchContext context) {
+			long start = System.nanoTime();
+			try {
+				return context.findElements(delegate);
+			} finally {
+				record(locator, Source.WEBDRIVER, System.nanoTime() - start);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return delegate.toString();
+		}
+	}
+
+	/**
+	 * Lookup count and a bounded window of recent latencies for one locator
+	 * and source.
+	 */
+	private static final class Stats {
+		private static final int WINDOW = 1024;
+
+		private final String locator;
+		private final Source source;
+		private final AtomicLong count = new AtomicLong();
+		private final long[] samples = new long[WINDOW];
+
+		Stats(String locator, Source source) {
+			this.locator = locator;
+			this.source = source;
+		}
+
+		void add(long nanos) {
+			synchronized (samples) {
+				samples[(int) (count.getAndIncrement() % WINDOW)] = nanos;
+			}
+		}
+
+		long p50() {
+			return percentile(0.50);
+		}
+
+		long p95() {
+			return percentile(0.95);
+		}
+
+		private long percentile(double percentile) {
+			long[] sorted;
+			synchronized (samples) {
+				sorted = Arrays.copyOf(samples, (int) Math.min(count.get(), WINDOW));
+			}
+			if (sorted.length == 0) {
+				return 0;
+			}
+			Arrays.sort(sorted);
+			int index = (int) Math.ceil(percentile * sorted.length) - 1;
+			return sorted[Math.max(0, index)];
+		}
+
+		@Override
+		public String toString() {
+			return locator + " (" + source.name().toLowerCase() + ") lookups=" + count.get() + " p50=" + TimeUnit.NANOSECONDS.toMillis(p50()) + "ms p95="
+					+ TimeUnit.NANOSECONDS.toMillis(p95()) + "ms";
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package com.bdd.utilities;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Direct URLs for pages that are otherwise reached by clicking through the
+ * site, so steps that only need a precondition can skip the UI chain.
+ *
+ * The paths come from url.search, url.product and url.trolley and are
+ * resolved against argos_url (or the replay server when replaying).
+ *
+ * Scenarios start on a blank browser. Whichever page is opened first goes
+ * through ConsentManager, so the consent cookies are seeded for that URL and
+ * a scenario that starts on a deep link never loads the home page.
+ *
+ */
+public final class Navigator {
+
+	protected static Logger log = LoggerFactory.getLogger(Navigator.class);
+
+	private Navigator() {
+		throw new IllegalStateException("Navigator class cannot be instantiated.");
+	}
+
+	/** Search results URL for a search term
+	 *
+	 * @param term
+	 * @return
+	 */
+	public static String searchUrl(String term) {
+		return url(ConfigManager.get().getString("url.search", "/search/{term}/").replace("{term}",
+				encode(term.trim().toLowerCase().replaceAll("\\s+", "-"))));
+	}
+
+	/** Product details URL for a product ID
+	 *
+	 * @param productId
+	 * @return
+	 */
+	public static String productUrl(String productId) {
+		return url(ConfigManager.get().getString("url.product", "/product/{id}").replace("{id}",
+				encode(productId.trim())));
+	}
+
+	public static String trolleyUrl() {
+		return url(ConfigManager.get().getString("url.trolley", "/basket"));
+	}
+
+	public static String homeUrl() {
+		return ReplayMode.resolve(ConfigManager.get().getRequired("argos_url"));
+	}
+
+	/** Load a URL in the browser, getting past the consent prompt when it is
+	 * the first page of the scenario
+	 *
+	 * @param driver
+	 * @param url
+	 */
+	public static void open(WebDriver driver, String url) {
+		if (isBlank(driver)) {
+			launch(driver, url);
+		} else {
+			log.info("Opening {}", url);
+			driver.get(url);
+		}
+	}
+
+	/** Load the URL only if the scenario has not opened any page yet
+	 *
+	 * @param driver
+	 * @param url
+	 */
+	public static void openIfBlank(WebDriver driver, String url) {
+		if (isBlank(driver)) {
+			launch(driver, url);
+		}
+	}
+
+	private static void launch(WebDriver driver, String url) {
+		log.info("Launching {}", url);
+		ConsentManager.open(driver, url);
+	}
+
+	/** A new session shows data:, and a reset pooled browser about:blank
+	 *
+	 * @param driver
+	 * @return
+	 */
+	private static boolean isBlank(WebDriver driver) {
+		String current = driver.getCurrentUrl();
+		return current == null || current.isEmpty() || current.startsWith("about:") || current.startsWith("data:")
+				|| current.startsWith("chrome://newtab");
+	}
+
+	private static String url(String path) {
+		String base = ConfigManager.get().getRequired("argos_url");
+		if (base.endsWith("/")) {
+			base = base.substring(0, base.length() - 1);
+		}
+		return ReplayMode.resolve(base + (path.startsWith("/") ? path : "/" + path));
+	}
+
+	private static String encode(String value) {
+		try {
+			return URLEncoder.encode(value, "UTF-8").replace("+", "%20");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,247 @@
+package com.bdd.utilities;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Driver-level URL blocklist for third-party trackers, ads and heavy assets.
+ *
+ * With network.block.mode=block the patterns are passed to CDP
+ * Network.setBlockedURLs and every request the browser refuses is counted.
+ * With network.block.mode=report nothing is blocked; requests matching the
+ * patterns are counted together with their transfer size, which measures
+ * what blocking would save. Either way one row per scenario is appended to
+ * target/network-blocking.csv (bytes are only known in report mode, since a
+ * blocked request never transfers anything) and a summary is attached to
+ * the scenario.
+ *
+ * The patterns are the default third-party set (network.block.thirdParty),
+ * the optional images and fonts categories, network.block.patterns and the
+ * lean browser profile's own patterns.
+ *
+ */
+public final class NetworkBlocker {
+
+	protected static Logger log = LoggerFactory.getLogger(NetworkBlocker.class);
+
+	private static final File REPORT = new File("target/network-blocking.csv");
+
+	private static final String[] THIRD_PARTY_PATTERNS = { "*google-analytics.com*", "*googletagmanager.com*",
+			"*googleadservices.com*", "*googlesyndication.com*", "*doubleclick.net*", "*connect.facebook.net*",
+			"*facebook.com/tr*", "*bat.bing.com*", "*hotjar.com*", "*optimizely.com*", "*assets.adobedtm.com*",
+			"*omtrdc.net*", "*demdex.net*", "*everesttech.net*", "*criteo.com*", "*criteo.net*",
+			"*analytics.tiktok.com*", "*ct.pinterest.com*", "*sc-static.net*", "*quantummetric.com*",
+			"*contentsquare.net*", "*qualtrics.com*", "*tiqcdn.com*", "*tealiumiq.com*", "*scorecardresearch.com*",
+			"*awin1.com*", "*yieldify.com*", "*nr-data.net*", "*js-agent.newrelic.com*" };
+	private static final String[] IMAGE_PATTERNS = { "*.png", "*.jpg", "*.jpeg", "*.gif", "*.webp", "*.avif",
+			"*.png?*", "*.jpg?*", "*.jpeg?*", "*.gif?*", "*.webp?*", "*.avif?*" };
+
+	private static final Map<WebDriver, NetworkBlocker> blockers = Collections.synchronizedMap(new WeakHashMap<>());
+	private static final AtomicLong totalRequests = new AtomicLong();
+	private static final AtomicLong totalBytes = new AtomicLong();
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			if (totalRequests.get() > 0) {
+				log.info("Network blocking: {} requests and {} kB avoided in total", totalRequests.get(),
+						totalBytes.get() / 1024);
+			}
+		}, "network-blocking"));
+	}
+
+	private final boolean reportOnly;
+	private final List<Pattern> matchers = new ArrayList<>();
+	private final Map<String, String> requestUrls = new ConcurrentHashMap<>();
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong bytes = new AtomicLong();
+
+	private NetworkBlocker(boolean reportOnly, Set<String> patterns) {
+		this.reportOnly = reportOnly;
+		for (String pattern : patterns) {
+			matchers.add(toRegex(pattern));
+		}
+	}
+
+	public static boolean isEnabled() {
+		return !"off".equalsIgnoreCase(ConfigManager.get().getString("network.block.mode", "off"));
+	}
+
+	/** Patterns for the current configuration and browser profile
+	 *
+	 * @param profile
+	 * @return
+	 */
+	public static Set<String> patterns(BrowserProfile profile) {
+		Config config = ConfigManager.get();
+		Set<String> patterns = new LinkedHashSet<>();
+		if (isEnabled()) {
+			if (config.getBoolean("network.block.thirdParty", true)) {
+				Collections.addAll(patterns, THIRD_PARTY_PATTERNS);
+			}
+			if (config.getBoolean("network.block.images", false)) {
+				Collections.addAll(patterns, IMAGE_PATTERNS);
+			}
+			if (config.getBoolean("network.block.fonts", false)) {
+				Collections.addAll(patterns, BrowserProfile.FONT_PATTERNS);
+			}
+			for (String pattern : config.getString("network.block.patterns", "").split(",")) {
+				if (!pattern.trim().isEmpty()) {
+					patterns.add(pattern.trim());
+				}
+			}
+		}
+		patterns.addAll(profile.blockedUrlPatterns());
+		return patterns;
+	}
+
+	/** Apply the blocklist to a new browser and start counting
+	 *
+	 * @param driver
+	 * @param profile
+	 */
+	public static void install(WebDriver driver, BrowserProfile profile) {
+		Set<String> patterns = patterns(profile);
+		if (patterns.isEmpty()) {
+			return;
+		}
+		if (!CdpSession.isSupported(driver)) {
+			log.warn("URL blocking needs a Chromium browser with DevTools access, ignoring {}", patterns);
+			return;
+		}
+		boolean reportOnly = "report".equalsIgnoreCase(ConfigManager.get().getString("network.block.mode", "off"));
+		NetworkBlocker blocker = new NetworkBlocker(reportOnly, patterns);
+		CdpSession session = CdpSession.of(driver);
+		if (reportOnly) {
+			session.subscribe("Network.requestWillBeSent", blocker::requestWillBeSent);
+			session.subscribe("Network.loadingFinished", blocker::loadingFinished);
+			session.subscribe("Network.loadingFailed",
+					params -> blocker.requestUrls.remove(String.valueOf(params.get("requestId"))));
+		} else {
+			session.subscribe("Network.loadingFailed", blocker::loadingFailed);
+		}
+		session.send("Network.enable", Collections.<String, Object>emptyMap());
+		if (!reportOnly) {
+			session.send("Network.setBlockedURLs", Collections.<String, Object>singletonMap("urls",
+					new ArrayList<>(patterns)));
+		}
+		blockers.put(driver, blocker);
+		log.info("{} {} URL patterns", reportOnly ? "Reporting on" : "Blocking", patterns.size());
+	}
+
+	/** Reset the counters when a scenario takes the browser
+	 *
+	 * @param driver
+	 */
+	public static void scenarioStarted(WebDriver driver) {
+		NetworkBlocker blocker = blockers.get(driver);
+		if (blocker != null) {
+			blocker.requests.set(0);
+			blocker.bytes.set(0);
+		}
+	}
+
+	/** Summary of what the scenario avoided, also appended to the CSV report
+	 *
+	 * @param driver
+	 * @param scenarioName
+	 * @return the summary, or null when blocking is not active on the browser
+	 */
+	public static String scenarioFinished(WebDriver driver, String scenarioName) {
+		NetworkBlocker blocker = blockers.get(driver);
+		if (blocker == null) {
+			return null;
+		}
+		long requests = blocker.requests.get();
+		long bytes = blocker.bytes.get();
+		totalRequests.addAndGet(requests);
+		totalBytes.addAndGet(bytes);
+		String mode = blocker.reportOnly ? "report" : "block";
+		synchronized (NetworkBlocker.class) {
+			boolean newFile = !REPORT.exists();
+			REPORT.getParentFile().mkdirs();
+			try (PrintWriter out = new PrintWriter(new FileWriter(REPORT, true))) {
+				if (newFile) {
+					out.println("mode,scenario,requests,bytes");
+				}
+				out.println(mode + "," + scenarioName.replace(',', ' ') + "," + requests + ","
+						+ (blocker.reportOnly ? String.valueOf(bytes) : ""));
+			} catch (IOException e) {
+				log.warn("Unable to write {}: {}", REPORT, e.getMessage());
+			}
+		}
+		String summary = blocker.reportOnly
+				? String.format("Blocklist would avoid %d requests and %d kB", requests, bytes / 1024)
+				: String.format("Blocklist avoided %d requests", requests);
+		log.info("{} in '{}'", summary, scenarioName);
+		return summary;
+	}
+
+	private void requestWillBeSent(Map<String, Object> params) {
+		Object request = params.get("request");
+		if (request instanceof Map) {
+			String url = String.valueOf(((Map<?, ?>) request).get("url"));
+			if (matches(url)) {
+				requestUrls.put(String.valueOf(params.get("requestId")), url);
+			}
+		}
+	}
+
+	private void loadingFinished(Map<String, Object> params) {
+		if (requestUrls.remove(String.valueOf(params.get("requestId"))) != null) {
+			requests.incrementAndGet();
+			Object length = params.get("encodedDataLength");
+			if (length instanceof Number) {
+				bytes.addAndGet(((Number) length).longValue());
+			}
+		}
+	}
+
+	private void loadingFailed(Map<String, Object> params) {
+		// csp, mixed-content and the like are the page's own doing, not the blocklist's
+		if ("inspector".equals(params.get("blockedReason"))) {
+			requests.incrementAndGet();
+		}
+	}
+
+	private boolean matches(String url) {
+		for (Pattern matcher : matchers) {
+			if (matcher.matcher(url).matches()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/** CDP URL patterns only know the * wildcard
+	 *
+	 * @param pattern
+	 * @return
+	 */
+	private static Pattern toRegex(String pattern) {
+		String[] parts = pattern.split("\\*", -1);
+		StringBuilder regex = new StringBuilder();
+		for (int i = 0; i < parts.length; i++) {
+			if (i > 0) {
+				regex.append(".*");
+			}
+			regex.append(Pattern.quote(parts[i]));
+		}
+		return Pattern.compile(regex.toString());
+	}
+}
@@ -0,0 +1,24 @@
+package com.bdd.utilities;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering one page-object method, emitted through
+ * {@link Telemetry#page}.
+ */
+@Name("com.bdd.PageAction")
+@Label("Page Action")
+@Category({ "Argos Automation", "Page Objects" })
+@Description("A page-object method call")
+public class PageActionEvent extends Event {
+
+	@Label("Page")
+	String page;
+
+	@Label("Method")
+	String method;
+}
@@ -0,0 +1,115 @@
+package com.bdd.utilities;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Locatable;
+import org.openqa.selenium.support.FindAll;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.FindBys;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+import org.openqa.selenium.support.pagefactory.internal.LocatingElementHandler;
+import org.openqa.selenium.support.pagefactory.internal.LocatingElementListHandler;
+
+/**
+ * Drop-in replacement for PageFactory.initElements with the reflection done
+ * once per page class.
+ *
+ * The first page of a class scans its fields and builds the locators from
+ * the @FindBy annotations; later instances reuse that metadata and only
+ * create the lazy element proxies, which resolve through the
+ * {@link LocatorRegistry} like {@link RegistryElementLocatorFactory}.
+ * Fields are decorated with the same rules as PageFactory: every WebElement
+ * field, and List&lt;WebElement&gt; fields annotated with @FindBy, @FindBys or
+ * @FindAll. With element.cache.enabled the single-element proxies keep the
+ * resolved element between calls (see {@link ElementHandleCache}).
+ *
+ * Usage: PageElements.init(driver, this);
+ *
+ */
+public final class PageElements {
+
+	private static final Map<Class<?>, List<Binding>> bindings = new ConcurrentHashMap<>();
+
+	private PageElements() {
+		throw new IllegalStateException("PageElements class cannot be instantiated.");
+	}
+
+	/** Populate the element fields of a page object
+	 *
+	 * @param searchContext usually the driver
+	 * @param page
+	 */
+	public static void init(SearchContext searchContext, Object page) {
+		ClassLoader loader = page.getClass().getClassLoader();
+		boolean cacheElements = ElementHandleCache.isEnabled();
+		for (Binding binding : bindings.computeIfAbsent(page.getClass(), PageElements::scan)) {
+			ElementLocator locator = binding.spec.locate(searchContext);
+			Object proxy = binding.list
+					? Proxy.newProxyInstance(loader, new Class<?>[] { List.class },
+							new LocatingElementListHandler(locator))
+					: Proxy.newProxyInstance(loader,
+							new Class<?>[] { WebElement.class, WrapsElement.class, Locatable.class },
+							cacheElements ? ElementHandleCache.handler(locator, binding.spec.getKey())
+									: new LocatingElementHandler(locator));
+			try {
+				binding.field.set(page, proxy);
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException("Unable to initialise " + binding.field, e);
+			}
+		}
+	}
+
+	private static List<Binding> scan(Class<?> pageClass) {
+		List<Binding> found = new ArrayList<>();
+		for (Class<?> type = pageClass; type != null && type != Object.class; type = type.getSuperclass()) {
+			for (Field field : type.getDeclaredFields()) {
+				boolean element = WebElement.class.equals(field.getType());
+				boolean list = isElementList(field);
+				if (element || list) {
+					field.setAccessible(true);
+					found.add(new Binding(field, list, RegistryElementLocatorFactory.LocatorSpec.of(field)));
+				}
+			}
+		}
+		return Collections.unmodifiableList(found);
+	}
+
+	private static boolean isElementList(Field field) {
+		if (!List.class.equals(field.getType())) {
+			return false;
+		}
+		Type generic = field.getGenericType();
+		if (!(generic instanceof ParameterizedType)
+				|| !WebElement.class.equals(((ParameterizedType) generic).getActualTypeArguments()[0])) {
+			return false;
+		}
+		return field.getAnnotation(FindBy.class) != null || field.getAnnotation(FindBys.class) != null
+				|| field.getAnnotation(FindAll.class) != null;
+	}
+
+	/**
+	 * A decorated field and its prebuilt locator metadata.
+	 */
+	private static final class Binding {
+		private final Field field;
+		private final boolean list;
+		private final RegistryElementLocatorFactory.LocatorSpec spec;
+
+		Binding(Field field, boolean list, RegistryElementLocatorFactory.LocatorSpec spec) {
+			this.field = field;
+			this.list = list;
+			this.spec = spec;
+		}
+	}
+}
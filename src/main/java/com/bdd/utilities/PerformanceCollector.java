@@ -0,0 +1,256 @@
+package com.bdd.utilities;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * Front-end performance of every page a journey reaches.
+ *
+ * When a page object reports its page ready, Navigation Timing (TTFB,
+ * DOMContentLoaded, load), First Contentful Paint, resource timing totals,
+ * Largest Contentful Paint, Cumulative Layout Shift (largest session window)
+ * and long tasks are read from the browser and appended as one JSON line to
+ * target/web-vitals/web-vitals-{run}.jsonl. LCP, CLS and long tasks need a
+ * PerformanceObserver, which is registered for every new document through
+ * CDP on Chromium and otherwise on first collection with buffered entries.
+ *
+ * A page reached without a new document (a client-side route change) keeps
+ * the timings of the document it started from; navigationType and
+ * timeOrigin in the record make that visible.
+ *
+ * The last measurement per page is kept for the scenario on this thread so
+ * steps can check budgets against it.
+ *
+ */
+public final class PerformanceCollector {
+
+	protected static Logger log = LoggerFactory.getLogger(PerformanceCollector.class);
+
+	static final String OBSERVER = "(function () {"
+			+ "  if (window.__argosVitals || typeof PerformanceObserver === 'undefined') { return; }"
+			+ "  var vitals = window.__argosVitals = { lcp: null, cls: 0, session: 0, first: 0, last: 0,"
+			+ "    longTasks: 0, longTaskMs: 0, blockingMs: 0 };"
+			+ "  try { performance.setResourceTimingBufferSize(2000); } catch (e) {}"
+			+ "  function observe(type, callback) {"
+			+ "    try {"
+			+ "      new PerformanceObserver(function (list) { list.getEntries().forEach(callback); })"
+			+ "        .observe({ type: type, buffered: true });"
+			+ "    } catch (e) {}"
+			+ "  }"
+			+ "  observe('largest-contentful-paint', function (entry) { vitals.lcp = entry.startTime; });"
+			+ "  observe('layout-shift', function (entry) {"
+			+ "    if (entry.hadRecentInput) { return; }"
+			+ "    if (vitals.session > 0 && entry.startTime - vitals.last < 1000 && entry.startTime - vitals.first < 5000) {"
+			+ "      vitals.session += entry.value;"
+			+ "    } else {"
+			+ "      vitals.session = entry.value;"
+			+ "      vitals.first = entry.startTime;"
+			+ "    }"
+			+ "    vitals.last = entry.startTime;"
+			+ "    vitals.cls = Math.max(vitals.cls, vitals.session);"
+			+ "  });"
+			+ "  observe('longtask', function (entry) {"
+			+ "    vitals.longTasks++;"
+			+ "    vitals.longTaskMs += entry.duration;"
+			+ "    vitals.blockingMs += Math.max(0, entry.duration - 50);"
+			+ "  });"
+			+ "})();";
+
+	private static final String COLLECT = "var callback = arguments[arguments.length - 1];"
+			+ OBSERVER
+			+ "setTimeout(function () {"
+			+ "  var vitals = window.__argosVitals || {};"
+			+ "  var nav = performance.getEntriesByType('navigation')[0] || {};"
+			+ "  var fcp = performance.getEntriesByName('first-contentful-paint')[0];"
+			+ "  var resources = performance.getEntriesByType('resource');"
+			+ "  var transfer = 0, encoded = 0, slowest = null;"
+			+ "  resources.forEach(function (r) {"
+			+ "    transfer += r.transferSize || 0;"
+			+ "    encoded += r.encodedBodySize || 0;"
+			+ "    if (!slowest || r.duration > slowest.duration) { slowest = r; }"
+			+ "  });"
+			+ "  callback(JSON.stringify({ url: location.href, timeOrigin: performance.timeOrigin,"
+			+ "    navigationType: nav.type || null, ttfbMs: nav.responseStart || null,"
+			+ "    fcpMs: fcp ? fcp.startTime : null, domContentLoadedMs: nav.domContentLoadedEventEnd || null,"
+			+ "    loadMs: nav.loadEventEnd || null, documentBytes: nav.transferSize || 0,"
+			+ "    lcpMs: vitals.lcp === undefined ? null : vitals.lcp, cls: vitals.cls === undefined ? null : vitals.cls,"
+			+ "    longTasks: vitals.longTasks, longTaskMs: vitals.longTaskMs, blockingMs: vitals.blockingMs,"
+			+ "    resources: resources.length, transferBytes: transfer, encodedBytes: encoded,"
+			+ "    slowestResourceMs: slowest ? slowest.duration : null, slowestResource: slowest ? slowest.name : null }));"
+			+ "}, 50);";
+
+	private static final Pattern BUDGET = Pattern.compile("\\s*([0-9]+(?:\\.[0-9]+)?)\\s*(ms|s|b|kb|mb)?\\s*",
+			Pattern.CASE_INSENSITIVE);
+	private static final Map<String, String> METRICS = new HashMap<>();
+
+	static {
+		METRICS.put("lcp", "lcpMs");
+		METRICS.put("fcp", "fcpMs");
+		METRICS.put("ttfb", "ttfbMs");
+		METRICS.put("dcl", "domContentLoadedMs");
+		METRICS.put("domcontentloaded", "domContentLoadedMs");
+		METRICS.put("load", "loadMs");
+		METRICS.put("cls", "cls");
+		METRICS.put("tbt", "blockingMs");
+		METRICS.put("blocking", "blockingMs");
+		METRICS.put("longtasks", "longTasks");
+		METRICS.put("requests", "resources");
+		METRICS.put("weight", "transferBytes");
+		METRICS.put("transfer", "transferBytes");
+	}
+
+	private static final File OUTPUT = new File("target/web-vitals/web-vitals-"
+			+ new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + "-"
+			+ ManagementFactory.getRuntimeMXBean().getName().split("@")[0] + ".jsonl");
+	private static final ThreadLocal<Map<String, Map<String, Object>>> lastByPage = ThreadLocal
+			.withInitial(HashMap::new);
+
+	private PerformanceCollector() {
+		throw new IllegalStateException("PerformanceCollector class cannot be instantiated.");
+	}
+
+	public static boolean isEnabled() {
+		return ConfigManager.get().getBoolean("web.vitals.enabled", true);
+	}
+
+	/** Register the observers for every new document (Chromium only)
+	 *
+	 * @param driver
+	 */
+	public static void install(WebDriver driver) {
+		if (!isEnabled() || !(driver instanceof HasCdp)) {
+			return;
+		}
+		try {
+			((HasCdp) driver).executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
+					Collections.<String, Object>singletonMap("source", OBSERVER));
+		} catch (WebDriverException e) {
+			log.warn("Unable to pre-install the web vitals observers: {}", e.getMessage());
+		}
+	}
+
+	/** Forget the previous scenario's measurements on this thread */
+	public static void scenarioStarted() {
+		lastByPage.get().clear();
+	}
+
+	/** Measure the current document for a page that has just become ready.
+	 * Measuring never fails the journey.
+	 *
+	 * @param driver
+	 * @param page
+	 */
+	public static void pageReady(WebDriver driver, String page) {
+		if (!isEnabled()) {
+			return;
+		}
+		Map<String, Object> record = new LinkedHashMap<>();
+		try {
+			Object json = ((JavascriptExecutor) driver).executeAsyncScript(COLLECT);
+			record.put("timestamp", System.currentTimeMillis());
+			record.put("scenario", MDC.get("scenario"));
+			record.put("page", page);
+			record.putAll(new Json().toType(String.valueOf(json), Json.MAP_TYPE));
+		} catch (WebDriverException e) {
+			log.warn("Unable to read web vitals for the {} page: {}", page, e.getMessage());
+			return;
+		}
+		Map<String, Object> previous = lastByPage.get().put(page, record);
+		if (previous != null && String.valueOf(previous.get("timeOrigin")).equals(String.valueOf(record.get("timeOrigin")))
+				&& String.valueOf(previous.get("url")).equals(String.valueOf(record.get("url")))) {
+			// same document reported ready again: keep the fresher numbers for budgets, write it once
+			return;
+		}
+		write(record);
+		log.info("Web vitals for the {} page: TTFB {} ms, LCP {} ms, CLS {}, long tasks {}", page,
+				round(record.get("ttfbMs")), round(record.get("lcpMs")), record.get("cls"), record.get("longTasks"));
+	}
+
+	private static synchronized void write(Map<String, Object> record) {
+		OUTPUT.getParentFile().mkdirs();
+		try (PrintWriter out = new PrintWriter(new FileWriter(OUTPUT, true))) {
+			StringBuilder line = new StringBuilder();
+			try (JsonOutput json = new Json().newOutput(line)) {
+				json.setPrettyPrint(false).write(record);
+			}
+			out.println(line);
+		} catch (IOException e) {
+			log.warn("Unable to write {}: {}", OUTPUT, e.getMessage());
+		}
+	}
+
+	/** A metric of the last measurement of a page in this scenario
+	 *
+	 * @param page
+	 * @param metric LCP, FCP, TTFB, DCL, load, CLS, TBT, longTasks, requests or weight
+	 * @return milliseconds, bytes, a count, or the unitless CLS score
+	 */
+	public static double metric(String page, String metric) {
+		Map<String, Object> record = lastByPage.get().get(page);
+		if (record == null) {
+			throw new IllegalStateException("The " + page + " page has not been measured in this scenario"
+					+ (isEnabled() ? "" : " (web.vitals.enabled=false)"));
+		}
+		String key = METRICS.get(metric.toLowerCase(Locale.ROOT));
+		if (key == null) {
+			throw new IllegalArgumentException("Unknown metric " + metric + ", expected one of " + METRICS.keySet());
+		}
+		Object value = record.get(key);
+		if (!(value instanceof Number)) {
+			throw new IllegalStateException(metric + " is not available for the " + page + " page at "
+					+ record.get("url"));
+		}
+		return ((Number) value).doubleValue();
+	}
+
+	/** Parse a budget such as 2.5s, 800ms, 0.1 or 1.5MB into milliseconds,
+	 * bytes or a plain number
+	 *
+	 * @param budget
+	 * @return
+	 */
+	public static double parseBudget(String budget) {
+		Matcher matcher = BUDGET.matcher(budget);
+		if (!matcher.matches()) {
+			throw new IllegalArgumentException("Not a budget: " + budget);
+		}
+		double value = Double.parseDouble(matcher.group(1));
+		String unit = matcher.group(2) == null ? "" : matcher.group(2).toLowerCase(Locale.ROOT);
+		switch (unit) {
+		case "s":
+			return value * 1000;
+		case "kb":
+			return value * 1024;
+		case "mb":
+			return value * 1024 * 1024;
+		default:
+			return value;
+		}
+	}
+
+	private static Object round(Object value) {
+		return value instanceof Number ? Math.round(((Number) value).doubleValue()) : value;
+	}
+}
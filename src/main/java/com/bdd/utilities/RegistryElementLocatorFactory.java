@@ -0,0 +1,111 @@
+package com.bdd.utilities;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.pagefactory.Annotations;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+import org.openqa.selenium.support.pagefactory.ElementLocatorFactory;
+
+/**
+ * PageFactory locator factory that resolves @FindBy fields through the
+ * {@link LocatorRegistry}: XPath annotations are swapped for CSS when safe
+ * and every lookup is timed per locator.
+ *
+ * Usage: PageFactory.initElements(new RegistryElementLocatorFactory(driver), this);
+ *
+ */
+public class RegistryElementLocatorFactory implements ElementLocatorFactory {
+
+	private final SearchContext searchContext;
+
+	public RegistryElementLocatorFactory(SearchContext searchContext) {
+		this.searchContext = searchContext;
+	}
+
+	@Override
+	public ElementLocator createLocator(Field field) {
+		return LocatorSpec.of(field).locate(searchContext);
+	}
+
+	/**
+	 * Locator metadata of one field, built once from its annotations.
+	 */
+	static final class LocatorSpec {
+		private final By by;
+		private final String key;
+		private final boolean shouldCache;
+
+		private LocatorSpec(Annotations annotations) {
+			By declared = annotations.buildBy();
+			this.by = LocatorRegistry.optimize(declared);
+			this.key = declared instanceof By.ByXPath
+					? String.valueOf(((By.ByXPath) declared).getRemoteParameters().value())
+					: declared.toString();
+			this.shouldCache = annotations.isLookupCached();
+		}
+
+		String getKey() {
+			return key;
+		}
+
+		static LocatorSpec of(Field field) {
+			return new LocatorSpec(new Annotations(field));
+		}
+
+		ElementLocator locate(SearchContext searchContext) {
+			return new RegistryElementLocator(searchContext, this);
+		}
+	}
+
+	/**
+	 * Same contract as the default PageFactory locator, with timed lookups.
+	 */
+	static class RegistryElementLocator implements ElementLocator {
+		private final SearchContext searchContext;
+		private final By by;
+		private final String key;
+		private final boolean shouldCache;
+		private WebElement cachedElement;
+		private List<WebElement> cachedElementList;
+
+		RegistryElementLocator(SearchContext searchContext, LocatorSpec spec) {
+			this.searchContext = searchContext;
+			this.by = spec.by;
+			this.key = spec.key;
+			this.shouldCache = spec.shouldCache;
+		}
+
+		@Override
+		public WebElement findElement() {
+			if (cachedElement != null && shouldCache) {
+				return cachedElement;
+			}
+			WebElement element = LocatorRegistry.timed(key, by).findElement(searchContext);
+			if (shouldCache) {
+				cachedElement = element;
+			}
+			return element;
+		}
+
+		@Override
+		public List<WebElement> findElements() {
+			if (cachedElementList != null && shouldCache) {
+				return cachedElementList;
+			}
+			List<WebElement> elements = LocatorRegistry.timed(key, by).findElements(searchContext);
+			if (shouldCache) {
+				cachedElementList = elements;
+			}
+			return elements;
+		}
+
+		@Override
+		public String toString() {
+			return "Located by " + by;
+		}
+	}
+}
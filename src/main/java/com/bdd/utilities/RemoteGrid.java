@@ -0,0 +1,309 @@
+package com.bdd.utilities;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.remote.Augmenter;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates browser sessions on one or more Selenium Grid hubs or standalone
+ * servers listed in grid.urls.
+ *
+ * grid.selection=round-robin rotates through the URLs. least-loaded asks
+ * each URL for its /status first and tries the one with the most free slots
+ * for the requested browser, skipping URLs that do not answer. Sessions this
+ * JVM is still requesting or holding on a URL are taken off its free slots,
+ * so parallel threads do not all pick the URL that looked emptiest a moment
+ * ago; equal URLs are taken in round-robin order. A failed
+ * session request moves on to the next URL; after a full pass the attempt is
+ * repeated up to grid.retries times with a doubling grid.retryDelay.
+ *
+ * Every grid.capability.name=value is passed through to the session request,
+ * so Grid-specific options such as se:recordVideo or platformName need no
+ * code. The session is augmented, so a Chromium browser on a Grid that
+ * exposes se:cdp keeps DevTools-based features.
+ *
+ */
+public final class RemoteGrid {
+
+	protected static Logger log = LoggerFactory.getLogger(RemoteGrid.class);
+
+	private static final String CAPABILITY_PREFIX = "grid.capability.";
+	private static final int STATUS_TIMEOUT_MILLIS = 2000;
+
+	private static final AtomicInteger nextUrl = new AtomicInteger();
+	private static final Map<String, AtomicLong> sessionsCreated = new ConcurrentHashMap<>();
+	private static final Map<String, AtomicLong> sessionFailures = new ConcurrentHashMap<>();
+	private static final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+	private static final Map<WebDriver, String> liveSessions = Collections
+			.synchronizedMap(new WeakHashMap<WebDriver, String>());
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			if (!sessionsCreated.isEmpty() || !sessionFailures.isEmpty()) {
+				log.info(statistics());
+			}
+		}, "grid-statistics"));
+	}
+
+	private RemoteGrid() {
+		throw new IllegalStateException("RemoteGrid class cannot be instantiated.");
+	}
+
+	/** Create a session on the Grid for the given browser options
+	 *
+	 * @param options
+	 * @return
+	 */
+	public static WebDriver createDriver(MutableCapabilities options) {
+		Config config = ConfigManager.get();
+		List<URL> urls = urls(config);
+		passThrough(config, options);
+		if (ReplayMode.current() != ReplayMode.Mode.OFF) {
+			log.warn("replay.mode={} needs a browser on this host; the Grid browser will not reach the replay server",
+					ReplayMode.current());
+		}
+		int attempts = Math.max(1, config.getInt("grid.retries", 3));
+		Duration delay = config.getDuration("grid.retryDelay", Duration.ofSeconds(2));
+		WebDriverException last = null;
+		for (int attempt = 1; attempt <= attempts; attempt++) {
+			for (URL url : order(urls, config.getString("grid.selection", "round-robin"), options.getBrowserName())) {
+				AtomicInteger requests = inFlight.computeIfAbsent(url.toString(), key -> new AtomicInteger());
+				requests.incrementAndGet();
+				try {
+					long start = System.nanoTime();
+					WebDriver driver = new Augmenter().augment(new RemoteWebDriver(url, options));
+					liveSessions.put(driver, url.toString());
+					counter(sessionsCreated, url).incrementAndGet();
+					log.info("Created {} session on {} in {} ms", options.getBrowserName(), url,
+							(System.nanoTime() - start) / 1_000_000);
+					return driver;
+				} catch (WebDriverException e) {
+					counter(sessionFailures, url).incrementAndGet();
+					last = e;
+					log.warn("Session request to {} failed (attempt {}/{}): {}", url, attempt, attempts,
+							firstLine(e.getMessage()));
+				} finally {
+					requests.decrementAndGet();
+				}
+			}
+			if (attempt < attempts) {
+				sleep(delay.multipliedBy(1L << (attempt - 1)));
+			}
+		}
+		throw new SessionNotCreatedException("Unable to create a " + options.getBrowserName() + " session on " + urls,
+				last);
+	}
+
+	/** Stop counting a session against its Grid URL; call when the driver is
+	 * quit. Does nothing for drivers that did not come from a Grid.
+	 *
+	 * @param driver
+	 */
+	public static void sessionEnded(WebDriver driver) {
+		liveSessions.remove(driver);
+	}
+
+	static List<URL> urls(Config config) {
+		List<URL> urls = new ArrayList<>();
+		for (String value : config.getRequired("grid.urls").split(",")) {
+			if (value.trim().isEmpty()) {
+				continue;
+			}
+			try {
+				urls.add(new URL(value.trim()));
+			} catch (MalformedURLException e) {
+				throw new IllegalArgumentException("Property grid.urls has an invalid URL: " + value, e);
+			}
+		}
+		if (urls.isEmpty()) {
+			throw new IllegalArgumentException("Property grid.urls lists no URLs");
+		}
+		return urls;
+	}
+
+	/** The URLs in the order they should be tried
+	 *
+	 * @param urls
+	 * @param selection round-robin or least-loaded
+	 * @param browserName
+	 * @return
+	 */
+	static List<URL> order(List<URL> urls, String selection, String browserName) {
+		if ("least-loaded".equalsIgnoreCase(selection)) {
+			Map<URL, Integer> free = new LinkedHashMap<>();
+			for (URL url : rotate(urls)) {
+				int slots = freeSlots(url, browserName);
+				if (slots >= 0) {
+					free.put(url, slots - ownSessions(url));
+				} else {
+					log.info("Skipping {}: no usable /status", url);
+				}
+			}
+			if (!free.isEmpty()) {
+				// stable sort, so URLs with the same load keep the rotated order
+				List<URL> ordered = new ArrayList<>(free.keySet());
+				ordered.sort(Comparator.comparing(free::get, Comparator.reverseOrder()));
+				return ordered;
+			}
+			log.warn("No Grid answered /status, falling back to round-robin");
+		} else if (!"round-robin".equalsIgnoreCase(selection)) {
+			throw new IllegalArgumentException("Unsupported grid.selection: " + selection);
+		}
+		return rotate(urls);
+	}
+
+	private static List<URL> rotate(List<URL> urls) {
+		List<URL> rotated = new ArrayList<>(urls);
+		Collections.rotate(rotated, -Math.floorMod(nextUrl.getAndIncrement(), urls.size()));
+		return rotated;
+	}
+
+	/** Sessions this JVM is requesting or holding on the URL
+	 *
+	 * @param url
+	 * @return
+	 */
+	static int ownSessions(URL url) {
+		String key = url.toString();
+		AtomicInteger requests = inFlight.get(key);
+		int count = requests == null ? 0 : requests.get();
+		synchronized (liveSessions) {
+			for (String live : liveSessions.values()) {
+				if (key.equals(live)) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/** Free slots for the browser according to the Grid's /status
+	 *
+	 * @param url
+	 * @param browserName
+	 * @return the number of free slots, 0 when the Grid is not ready, or -1 when it is unreachable
+	 */
+	@SuppressWarnings("unchecked")
+	static int freeSlots(URL url, String browserName) {
+		Map<String, Object> status;
+		try {
+			String base = url.toString().replaceAll("/+$", "");
+			HttpURLConnection connection = (HttpURLConnection) new URL(base + "/status").openConnection();
+			connection.setConnectTimeout(STATUS_TIMEOUT_MILLIS);
+			connection.setReadTimeout(STATUS_TIMEOUT_MILLIS);
+			try (Reader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+				status = new Json().toType(reader, Json.MAP_TYPE);
+			} finally {
+				connection.disconnect();
+			}
+		} catch (IOException | RuntimeException e) {
+			return -1;
+		}
+		Map<String, Object> value = status == null ? null : (Map<String, Object>) status.get("value");
+		if (value == null) {
+			return -1;
+		}
+		if (!Boolean.TRUE.equals(value.get("ready"))) {
+			return 0;
+		}
+		int free = 0;
+		for (Map<String, Object> node : (List<Map<String, Object>>) value.getOrDefault("nodes",
+				Collections.emptyList())) {
+			if (!"UP".equals(node.getOrDefault("availability", "UP"))) {
+				continue;
+			}
+			for (Map<String, Object> slot : (List<Map<String, Object>>) node.getOrDefault("slots",
+					Collections.emptyList())) {
+				Map<String, Object> stereotype = (Map<String, Object>) slot.get("stereotype");
+				boolean matches = browserName == null || browserName.isEmpty() || stereotype == null
+						|| browserName.equalsIgnoreCase(String.valueOf(stereotype.get("browserName")));
+				if (matches && slot.get("session") == null) {
+					free++;
+				}
+			}
+		}
+		return free;
+	}
+
+	private static void passThrough(Config config, MutableCapabilities options) {
+		for (Map.Entry<String, String> capability : config.getWithPrefix(CAPABILITY_PREFIX).entrySet()) {
+			options.setCapability(capability.getKey(), typed(capability.getValue()));
+		}
+	}
+
+	private static Object typed(String value) {
+		String text = value.trim();
+		if ("true".equalsIgnoreCase(text) || "false".equalsIgnoreCase(text)) {
+			return Boolean.valueOf(text);
+		}
+		if (text.matches("-?\\d{1,9}")) {
+			return Integer.valueOf(text);
+		}
+		return text;
+	}
+
+	private static AtomicLong counter(Map<String, AtomicLong> counters, URL url) {
+		return counters.computeIfAbsent(url.toString(), key -> new AtomicLong());
+	}
+
+	private static String firstLine(String message) {
+		if (message == null) {
+			return "";
+		}
+		int end = message.indexOf('\n');
+		return end < 0 ? message : message.substring(0, end);
+	}
+
+	private static void sleep(Duration delay) {
+		try {
+			Thread.sleep(delay.toMillis());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SessionNotCreatedException("Interrupted while waiting to retry the session request");
+		}
+	}
+
+	/** Sessions created and failed requests per Grid URL
+	 *
+	 * @return
+	 */
+	public static String statistics() {
+		StringBuilder text = new StringBuilder("Grid sessions:");
+		Set<String> urls = new TreeSet<>(sessionsCreated.keySet());
+		urls.addAll(sessionFailures.keySet());
+		for (String url : urls) {
+			AtomicLong created = sessionsCreated.get(url);
+			AtomicLong failed = sessionFailures.get(url);
+			text.append(String.format("%n  %s created=%d failed=%d", url, created == null ? 0 : created.get(),
+					failed == null ? 0 : failed.get()));
+		}
+		return text.toString();
+	}
+}
@@ -0,0 +1,193 @@
+package com.bdd.utilities;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.TypeToken;
+
+/**
+ * Recorded responses for one journey, stored as index.json plus one body
+ * file per response under bodies/.
+ *
+ * Responses are keyed by method, host, path and query; the scheme is
+ * ignored so the same archive serves http and https. When the exact query
+ * was not recorded, the first response recorded for the path is used, which
+ * absorbs cache-busting parameters.
+ *
+ */
+public final class ReplayArchive {
+
+	private static final String INDEX = "index.json";
+	private static final Json JSON = new Json();
+
+	private final Path directory;
+	private final Map<String, Entry> exact = new ConcurrentHashMap<>();
+	private final Map<String, Entry> byPath = new ConcurrentHashMap<>();
+
+	private ReplayArchive(Path directory) {
+		this.directory = directory;
+	}
+
+	/** An empty archive that will be written to the directory
+	 *
+	 * @param directory
+	 * @return
+	 */
+	public static ReplayArchive create(Path directory) {
+		return new ReplayArchive(directory);
+	}
+
+	/** Load a recorded archive
+	 *
+	 * @param directory
+	 * @return
+	 * @throws IOException
+	 */
+	public static ReplayArchive load(Path directory) throws IOException {
+		ReplayArchive archive = new ReplayArchive(directory);
+		List<Map<String, Object>> index;
+		try (Reader reader = Files.newBufferedReader(directory.resolve(INDEX), StandardCharsets.UTF_8)) {
+			index = JSON.toType(reader, new TypeToken<List<Map<String, Object>>>() {
+			}.getType());
+		}
+		for (Map<String, Object> row : index) {
+			String file = (String) row.get("file");
+			byte[] body = file == null ? new byte[0] : Files.readAllBytes(directory.resolve(file));
+			archive.put(new Entry((String) row.get("method"), (String) row.get("url"),
+					((Number) row.get("status")).intValue(), (String) row.get("mimeType"), (String) row.get("location"),
+					body));
+		}
+		return archive;
+	}
+
+	/** Keep a response, unless one was already recorded for the same request
+	 *
+	 * @param entry
+	 */
+	public void put(Entry entry) {
+		URI uri = URI.create(entry.url);
+		exact.putIfAbsent(key(entry.method, uri.getHost(), uri.getRawPath(), uri.getRawQuery()), entry);
+		byPath.putIfAbsent(key(entry.method, uri.getHost(), uri.getRawPath(), null), entry);
+	}
+
+	/** Find the recorded response for a request
+	 *
+	 * @param method
+	 * @param host
+	 * @param path
+	 * @param query
+	 * @return the entry, or null when nothing was recorded for the path
+	 */
+	public Entry find(String method, String host, String path, String query) {
+		Entry entry = exact.get(key(method, host, path, query));
+		return entry != null ? entry : byPath.get(key(method, host, path, null));
+	}
+
+	/** Hosts that appear in the archive, in recording order
+	 *
+	 * @return
+	 */
+	public Set<String> hosts() {
+		Set<String> hosts = new LinkedHashSet<>();
+		for (Entry entry : exact.values()) {
+			hosts.add(URI.create(entry.url).getHost());
+		}
+		return hosts;
+	}
+
+	public int size() {
+		return exact.size();
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/** Write index.json and the body files
+	 *
+	 * @throws IOException
+	 */
+	public synchronized void save() throws IOException {
+		Path bodies = directory.resolve("bodies");
+		Files.createDirectories(bodies);
+		List<Map<String, Object>> index = new ArrayList<>();
+		int sequence = 0;
+		for (Entry entry : exact.values()) {
+			Map<String, Object> row = new LinkedHashMap<>();
+			row.put("method", entry.method);
+			row.put("url", entry.url);
+			row.put("status", entry.status);
+			row.put("mimeType", entry.mimeType);
+			if (entry.location != null) {
+				row.put("location", entry.location);
+			}
+			if (entry.body.length > 0) {
+				String file = "bodies/" + (++sequence) + ".bin";
+				Files.write(directory.resolve(file), entry.body);
+				row.put("file", file);
+			}
+			index.add(row);
+		}
+		try (Writer writer = Files.newBufferedWriter(directory.resolve(INDEX), StandardCharsets.UTF_8)) {
+			writer.write(JSON.toJson(index));
+		}
+	}
+
+	private static String key(String method, String host, String path, String query) {
+		return method + " " + host + (path == null || path.isEmpty() ? "/" : path) + (query == null ? "" : "?" + query);
+	}
+
+	/**
+	 * One recorded response.
+	 */
+	public static final class Entry {
+		private final String method;
+		private final String url;
+		private final int status;
+		private final String mimeType;
+		private final String location;
+		private final byte[] body;
+
+		public Entry(String method, String url, int status, String mimeType, String location, byte[] body) {
+			this.method = method;
+			this.url = url;
+			this.status = status;
+			this.mimeType = mimeType == null ? "application/octet-stream" : mimeType;
+			this.location = location;
+			this.body = body == null ? new byte[0] : body;
+		}
+
+		public String getUrl() {
+			return url;
+		}
+
+		public int getStatus() {
+			return status;
+		}
+
+		public String getMimeType() {
+			return mimeType;
+		}
+
+		public String getLocation() {
+			return location;
+		}
+
+		public byte[] getBody() {
+			return body;
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package com.bdd.utilities;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.ChromiumOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Record-and-replay switch for running the suite without the live site.
+ *
+ * replay.mode=record copies every response the browsers receive into
+ * replay.archive, which is written when the JVM exits. replay.mode=replay
+ * serves that archive from a local {@link ReplayServer}, points argos_url at
+ * it and, with replay.offline=true, makes every other host unresolvable so a
+ * missing recording fails fast instead of reaching the internet.
+ *
+ */
+public final class ReplayMode {
+
+	protected static Logger log = LoggerFactory.getLogger(ReplayMode.class);
+
+	public enum Mode {
+		OFF, RECORD, REPLAY
+	}
+
+	private static ReplayArchive recording;
+	private static ReplayServer server;
+
+	private ReplayMode() {
+		throw new IllegalStateException("ReplayMode class cannot be instantiated.");
+	}
+
+	public static Mode current() {
+		return Mode.valueOf(ConfigManager.get().getString("replay.mode", "off").trim().toUpperCase());
+	}
+
+	private static Path archiveDirectory() {
+		return Paths.get(ConfigManager.get().getString("replay.archive", "src/test/resources/replay/argos"));
+	}
+
+	/** Add the launch switches replay needs to Chrome or Edge options
+	 *
+	 * @param options
+	 */
+	public static void apply(ChromiumOptions<?> options) {
+		if (current() == Mode.REPLAY && ConfigManager.get().getBoolean("replay.offline", true)) {
+			options.addArguments("--host-resolver-rules=MAP * ~NOTFOUND , EXCLUDE 127.0.0.1");
+		}
+	}
+
+	/** Start recording on a new browser when replay.mode=record
+	 *
+	 * @param driver
+	 */
+	public static void afterStart(WebDriver driver) {
+		if (current() == Mode.RECORD) {
+			ResponseRecorder.attach(driver, recording());
+		}
+	}
+
+	/** The URL to open for a live URL: unchanged unless replaying
+	 *
+	 * @param url
+	 * @return
+	 */
+	public static String resolve(String url) {
+		return current() == Mode.REPLAY ? server(url).rewrite(url) : url;
+	}
+
+	private static synchronized ReplayArchive recording() {
+		if (recording == null) {
+			recording = ReplayArchive.create(archiveDirectory());
+			Runtime.getRuntime().addShutdownHook(new Thread(ReplayMode::saveRecording, "replay-archive"));
+			log.info("Recording responses to {}", recording.getDirectory());
+		}
+		return recording;
+	}
+
+	private static void saveRecording() {
+		ResponseRecorder.drain();
+		try {
+			recording.save();
+			log.info("Recorded {} responses to {}", recording.size(), recording.getDirectory());
+		} catch (IOException e) {
+			log.error("Unable to write the replay archive {}", recording.getDirectory(), e);
+		}
+	}
+
+	private static synchronized ReplayServer server(String primaryUrl) {
+		if (server == null) {
+			try {
+				server = ReplayServer.start(ReplayArchive.load(archiveDirectory()), primaryUrl,
+						ConfigManager.get().getInt("replay.port", 0));
+			} catch (IOException e) {
+				throw new UncheckedIOException("Unable to replay " + archiveDirectory()
+						+ ", record it first with -Dreplay.mode=record", e);
+			}
+			Runtime.getRuntime().addShutdownHook(new Thread(server::close, "replay-server-stop"));
+		}
+		return server;
+	}
+}
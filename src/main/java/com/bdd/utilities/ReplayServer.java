@@ -0,0 +1,167 @@
+package com.bdd.utilities;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Embedded HTTP server that answers from a {@link ReplayArchive}.
+ *
+ * The recorded site is served from the server root; every other recorded
+ * host is served under /_host/{host}/. Absolute links to recorded hosts in
+ * HTML, CSS, JavaScript and JSON are rewritten to the local server when
+ * they are served, so the browser never leaves the machine.
+ *
+ */
+public final class ReplayServer implements AutoCloseable {
+
+	protected static Logger log = LoggerFactory.getLogger(ReplayServer.class);
+
+	private static final String HOST_PREFIX = "/_host/";
+
+	private final HttpServer server;
+	private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "replay-server");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private final ReplayArchive archive;
+	private final String primaryHost;
+	private final String baseUrl;
+	private final Map<String, String> replacements = new LinkedHashMap<>();
+	private final Map<ReplayArchive.Entry, byte[]> rewritten = new ConcurrentHashMap<>();
+	private final AtomicLong served = new AtomicLong();
+	private final AtomicLong missed = new AtomicLong();
+
+	private ReplayServer(ReplayArchive archive, String primaryHost, int port) throws IOException {
+		this.archive = archive;
+		this.primaryHost = primaryHost;
+		this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		this.baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+		List<String> hosts = new ArrayList<>(archive.hosts());
+		hosts.sort((left, right) -> right.length() - left.length());
+		for (String host : hosts) {
+			String local = localBase(host);
+			replacements.put("https://" + host, local);
+			replacements.put("http://" + host, local);
+			replacements.put("https:\\/\\/" + host, local.replace("/", "\\/"));
+			replacements.put("http:\\/\\/" + host, local.replace("/", "\\/"));
+			replacements.put("//" + host, local.substring("http:".length()));
+		}
+		server.createContext("/", this::handle);
+		server.setExecutor(executor);
+	}
+
+	/** Serve the archive, with the host of primaryUrl at the server root
+	 *
+	 * @param archive
+	 * @param primaryUrl the recorded argos_url
+	 * @param port 0 for any free port
+	 * @return
+	 * @throws IOException
+	 */
+	public static ReplayServer start(ReplayArchive archive, String primaryUrl, int port) throws IOException {
+		ReplayServer replay = new ReplayServer(archive, URI.create(primaryUrl).getHost(), port);
+		replay.server.start();
+		log.info("Replaying {} recorded responses from {} at {}", archive.size(), archive.getDirectory(),
+				replay.baseUrl);
+		return replay;
+	}
+
+	/** Map a live URL to the local server
+	 *
+	 * @param url
+	 * @return
+	 */
+	public String rewrite(String url) {
+		URI uri = URI.create(url);
+		if (uri.getHost() == null) {
+			return url;
+		}
+		String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+		return localBase(uri.getHost()) + path + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+	}
+
+	private String localBase(String host) {
+		return host.equals(primaryHost) ? baseUrl : baseUrl + HOST_PREFIX + host;
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		URI uri = exchange.getRequestURI();
+		String host = primaryHost;
+		String path = uri.getRawPath();
+		if (path.startsWith(HOST_PREFIX)) {
+			int slash = path.indexOf('/', HOST_PREFIX.length());
+			host = path.substring(HOST_PREFIX.length(), slash < 0 ? path.length() : slash);
+			path = slash < 0 ? "/" : path.substring(slash);
+		}
+		ReplayArchive.Entry entry = archive.find(exchange.getRequestMethod(), host, path, uri.getRawQuery());
+		if (entry == null) {
+			missed.incrementAndGet();
+			log.debug("Not recorded: {} {}{}", exchange.getRequestMethod(), host, uri.getRawPath());
+			send(exchange, 404, "text/plain", new byte[0]);
+			return;
+		}
+		served.incrementAndGet();
+		if (entry.getLocation() != null) {
+			String location = URI.create(entry.getUrl()).resolve(entry.getLocation()).toString();
+			exchange.getResponseHeaders().set("Location", rewrite(location));
+		}
+		send(exchange, entry.getStatus(), entry.getMimeType(), rewritten.computeIfAbsent(entry, this::body));
+	}
+
+	private byte[] body(ReplayArchive.Entry entry) {
+		String mimeType = entry.getMimeType();
+		if (!(mimeType.startsWith("text/") || mimeType.contains("javascript") || mimeType.contains("json")
+				|| mimeType.contains("xml"))) {
+			return entry.getBody();
+		}
+		String text = new String(entry.getBody(), StandardCharsets.UTF_8);
+		for (Map.Entry<String, String> replacement : replacements.entrySet()) {
+			text = text.replace(replacement.getKey(), replacement.getValue());
+		}
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static void send(HttpExchange exchange, int status, String mimeType, byte[] body) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type",
+				mimeType.startsWith("text/") || mimeType.contains("javascript") || mimeType.contains("json")
+						? mimeType + "; charset=utf-8" : mimeType);
+		exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+		boolean empty = body.length == 0 || status == 204 || status == 304 || "HEAD".equals(exchange.getRequestMethod());
+		exchange.sendResponseHeaders(status, empty ? -1 : body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			if (!empty) {
+				out.write(body);
+			}
+		}
+	}
+
+	public String getBaseUrl() {
+		return baseUrl;
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+		log.info("Replay server answered {} requests, {} were not recorded", served.get(), missed.get());
+	}
+}
@@ -0,0 +1,143 @@
+package com.bdd.utilities;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Copies every response a browser receives into a {@link ReplayArchive}.
+ *
+ * Request and response metadata come from the CDP Network events; bodies
+ * are fetched with Network.getResponseBody as soon as loading finishes, on a
+ * background thread so the DevTools event thread is never blocked.
+ * Redirect hops are kept as bodiless entries with their Location.
+ *
+ */
+public final class ResponseRecorder {
+
+	protected static Logger log = LoggerFactory.getLogger(ResponseRecorder.class);
+
+	private static final ExecutorService bodyReader = Executors.newFixedThreadPool(2, runnable -> {
+		Thread thread = new Thread(runnable, "response-recorder");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final CdpSession session;
+	private final ReplayArchive archive;
+	private final Map<String, Map<String, Object>> requests = new ConcurrentHashMap<>();
+	private final Map<String, Map<String, Object>> responses = new ConcurrentHashMap<>();
+
+	private ResponseRecorder(CdpSession session, ReplayArchive archive) {
+		this.session = session;
+		this.archive = archive;
+	}
+
+	/** Start recording everything the browser loads (Chromium only)
+	 *
+	 * @param driver
+	 * @param archive
+	 */
+	public static void attach(WebDriver driver, ReplayArchive archive) {
+		if (!CdpSession.isSupported(driver)) {
+			log.warn("Recording needs DevTools, {} will not be recorded", driver.getClass().getSimpleName());
+			return;
+		}
+		CdpSession session = CdpSession.of(driver);
+		ResponseRecorder recorder = new ResponseRecorder(session, archive);
+		session.subscribe("Network.requestWillBeSent", recorder::requestWillBeSent);
+		session.subscribe("Network.responseReceived", recorder::responseReceived);
+		session.subscribe("Network.loadingFinished", recorder::loadingFinished);
+		session.subscribe("Network.loadingFailed", params -> recorder.forget(String.valueOf(params.get("requestId"))));
+		session.send("Network.enable", Collections.<String, Object>emptyMap());
+	}
+
+	/** Wait for outstanding body reads before the archive is saved
+	 *
+	 */
+	static void drain() {
+		bodyReader.shutdown();
+		try {
+			bodyReader.awaitTermination(30, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void requestWillBeSent(Map<String, Object> params) {
+		String requestId = String.valueOf(params.get("requestId"));
+		Map<String, Object> request = (Map<String, Object>) params.get("request");
+		Map<String, Object> previous = requests.put(requestId, request);
+		Map<String, Object> redirect = (Map<String, Object>) params.get("redirectResponse");
+		if (redirect != null && previous != null && isRecordable((String) redirect.get("url"))) {
+			archive.put(new ReplayArchive.Entry((String) previous.get("method"), (String) redirect.get("url"),
+					((Number) redirect.get("status")).intValue(), (String) redirect.get("mimeType"),
+					header((Map<String, Object>) redirect.get("headers"), "location"), null));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void responseReceived(Map<String, Object> params) {
+		responses.put(String.valueOf(params.get("requestId")), (Map<String, Object>) params.get("response"));
+	}
+
+	private void loadingFinished(Map<String, Object> params) {
+		String requestId = String.valueOf(params.get("requestId"));
+		Map<String, Object> request = requests.remove(requestId);
+		Map<String, Object> response = responses.remove(requestId);
+		if (request == null || response == null || !isRecordable((String) response.get("url"))) {
+			return;
+		}
+		bodyReader.execute(() -> record(requestId, request, response));
+	}
+
+	private void record(String requestId, Map<String, Object> request, Map<String, Object> response) {
+		int status = ((Number) response.get("status")).intValue();
+		byte[] body = null;
+		if (status != 204 && status != 304) {
+			try {
+				Map<String, Object> result = session.send("Network.getResponseBody",
+						Collections.<String, Object>singletonMap("requestId", requestId));
+				String content = String.valueOf(result.get("body"));
+				body = Boolean.TRUE.equals(result.get("base64Encoded")) ? Base64.getDecoder().decode(content)
+						: content.getBytes(StandardCharsets.UTF_8);
+			} catch (RuntimeException e) {
+				log.debug("No body recorded for {}: {}", response.get("url"), e.getMessage());
+				return;
+			}
+		}
+		archive.put(new ReplayArchive.Entry((String) request.get("method"), (String) response.get("url"), status,
+				(String) response.get("mimeType"), null, body));
+	}
+
+	private void forget(String requestId) {
+		requests.remove(requestId);
+		responses.remove(requestId);
+	}
+
+	private static boolean isRecordable(String url) {
+		return url != null && (url.startsWith("http://") || url.startsWith("https://"));
+	}
+
+	private static String header(Map<String, Object> headers, String name) {
+		if (headers == null) {
+			return null;
+		}
+		for (Map.Entry<String, Object> header : headers.entrySet()) {
+			if (header.getKey().equalsIgnoreCase(name)) {
+				return String.valueOf(header.getValue());
+			}
+		}
+		return null;
+	}
+}
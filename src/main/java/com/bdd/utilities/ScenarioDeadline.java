@@ -0,0 +1,135 @@
+package com.bdd.utilities;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.TimeoutException;
+
+/**
+ * Overall time budget of the scenario running on the current thread.
+ *
+ * {@link #start(String)} opens a budget of scenario.timeout. Every wait asks
+ * {@link #budget} for its timeout, which is the configured timeout for the
+ * action capped by what is left of the budget, so a scenario that is
+ * running late waits less. Once the budget is spent the next wait fails at
+ * once with a {@link ScenarioTimeoutException} that names the scenario, the
+ * action and the most recent waits, instead of running into one more full
+ * timeout.
+ *
+ */
+public final class ScenarioDeadline {
+
+	private static final int HISTORY = 8;
+
+	private static final ThreadLocal<State> current = new ThreadLocal<>();
+
+	private ScenarioDeadline() {
+		throw new IllegalStateException("ScenarioDeadline class cannot be instantiated.");
+	}
+
+	/** Open the budget for a scenario starting on this thread
+	 *
+	 * @param scenarioName
+	 */
+	public static void start(String scenarioName) {
+		Duration budget = ConfigManager.get().getDuration("scenario.timeout", Duration.ofMinutes(3));
+		current.set(budget.isZero() || budget.isNegative() ? null : new State(scenarioName, budget));
+	}
+
+	public static void clear() {
+		current.remove();
+	}
+
+	/** Timeout for the next wait: the action's timeout capped by the budget left
+	 *
+	 * @param action
+	 * @param target what is being waited for, used in the diagnostic
+	 * @return
+	 * @throws ScenarioTimeoutException when the budget is already spent
+	 */
+	public static Duration budget(Timeouts.Action action, String target) {
+		Duration configured = Timeouts.of(action);
+		State state = current.get();
+		if (state == null) {
+			return configured;
+		}
+		long remaining = state.remainingNanos();
+		if (remaining <= 0) {
+			throw new ScenarioTimeoutException(state.diagnostic(action, target, null));
+		}
+		return remaining < configured.toNanos() ? Duration.ofNanos(remaining) : configured;
+	}
+
+	/** Record a finished wait for the diagnostic
+	 *
+	 * @param action
+	 * @param target
+	 * @param elapsedNanos
+	 */
+	public static void record(Timeouts.Action action, String target, long elapsedNanos) {
+		State state = current.get();
+		if (state != null) {
+			state.record(action + " " + target + " " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + "ms");
+		}
+	}
+
+	/** The exception to throw for a wait that timed out: a
+	 * {@link ScenarioTimeoutException} once the budget is spent, otherwise
+	 * the original exception
+	 *
+	 * @param timeout
+	 * @param action
+	 * @param target
+	 * @param url page the browser was on, or null
+	 * @return
+	 */
+	public static TimeoutException explain(TimeoutException timeout, Timeouts.Action action, String target,
+			String url) {
+		State state = current.get();
+		if (state == null || state.remainingNanos() > 0 || timeout instanceof ScenarioTimeoutException) {
+			return timeout;
+		}
+		return new ScenarioTimeoutException(state.diagnostic(action, target, url), timeout);
+	}
+
+	/**
+	 * Budget and recent waits of one scenario.
+	 */
+	private static final class State {
+		private final String scenario;
+		private final Duration budget;
+		private final long startNanos = System.nanoTime();
+		private final Deque<String> recent = new ArrayDeque<>();
+
+		State(String scenario, Duration budget) {
+			this.scenario = scenario;
+			this.budget = budget;
+		}
+
+		long remainingNanos() {
+			return budget.toNanos() - (System.nanoTime() - startNanos);
+		}
+
+		void record(String wait) {
+			if (recent.size() == HISTORY) {
+				recent.removeFirst();
+			}
+			recent.addLast(wait);
+		}
+
+		String diagnostic(Timeouts.Action action, String target, String url) {
+			StringBuilder message = new StringBuilder();
+			message.append("Scenario '").append(scenario).append("' exceeded its ").append(budget.getSeconds())
+					.append("s budget (scenario.timeout) after ")
+					.append(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)).append("ms while waiting for ")
+					.append(action).append(' ').append(target);
+			if (url != null) {
+				message.append(" on ").append(url);
+			}
+			message.append(". Most recent waits: ").append(recent.isEmpty() ? "none" : String.join(", ", recent));
+			return message.toString();
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package com.bdd.utilities;
+
+import org.openqa.selenium.TimeoutException;
+
+/**
+ * Thrown when a scenario has used up its time budget (scenario.timeout).
+ */
+public class ScenarioTimeoutException extends TimeoutException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ScenarioTimeoutException(String message) {
+		super(message);
+	}
+
+	public ScenarioTimeoutException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
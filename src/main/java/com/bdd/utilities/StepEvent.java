@@ -0,0 +1,26 @@
+package com.bdd.utilities;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering one Cucumber step.
+ */
+@Name("com.bdd.Step")
+@Label("Cucumber Step")
+@Category({ "Argos Automation", "Cucumber" })
+@Description("Execution of a single Gherkin step")
+public class StepEvent extends Event {
+
+	@Label("Scenario")
+	String scenario;
+
+	@Label("Step")
+	String step;
+
+	@Label("Status")
+	String status;
+}
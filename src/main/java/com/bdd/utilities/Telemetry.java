@@ -0,0 +1,164 @@
+package com.bdd.utilities;
+
+import java.util.function.Supplier;
+
+import org.openqa.selenium.TimeoutException;
+
+/**
+ * Emits {@link ElementActionEvent}s around ElementHelper waits and actions,
+ * and {@link PageActionEvent}s around page-object methods.
+ *
+ * Inside {@link #action} the waits and interactions of a compound operation
+ * such as "find, then click" are added up into one event, so it carries both
+ * its wait time and its act time.
+ *
+ * Events are cheap when no recording is running; start one for the whole
+ * run with jfr.enabled=true (see {@link FlightRecording}).
+ *
+ */
+public final class Telemetry {
+
+	private static final ThreadLocal<ElementActionEvent> compound = new ThreadLocal<>();
+
+	private Telemetry() {
+		throw new IllegalStateException("Telemetry class cannot be instantiated.");
+	}
+
+	/** Time a wait, flagging the event when it ends in a timeout
+	 *
+	 * @param action
+	 * @param locator
+	 * @param waitType
+	 * @param wait
+	 * @return
+	 */
+	public static <T> T waitFor(String action, String locator, String waitType, Supplier<T> wait) {
+		ElementActionEvent outer = compound.get();
+		if (outer != null) {
+			long start = System.nanoTime();
+			try {
+				return wait.get();
+			} catch (TimeoutException e) {
+				outer.timeoutHit = true;
+				throw e;
+			} finally {
+				outer.waitTime += System.nanoTime() - start;
+				if (outer.waitType == null) {
+					outer.waitType = waitType;
+				}
+			}
+		}
+		ElementActionEvent event = new ElementActionEvent();
+		if (!event.isEnabled()) {
+			return wait.get();
+		}
+		event.begin();
+		long start = System.nanoTime();
+		try {
+			return wait.get();
+		} catch (TimeoutException e) {
+			event.timeoutHit = true;
+			throw e;
+		} finally {
+			event.waitTime = System.nanoTime() - start;
+			event.action = action;
+			event.locator = locator;
+			event.waitType = waitType;
+			event.commit();
+		}
+	}
+
+	/** Time an interaction such as a click or typing
+	 *
+	 * @param action
+	 * @param locator
+	 * @param act
+	 */
+	public static void act(String action, String locator, Runnable act) {
+		ElementActionEvent outer = compound.get();
+		if (outer != null) {
+			long start = System.nanoTime();
+			try {
+				act.run();
+			} finally {
+				outer.actTime += System.nanoTime() - start;
+			}
+			return;
+		}
+		ElementActionEvent event = new ElementActionEvent();
+		if (!event.isEnabled()) {
+			act.run();
+			return;
+		}
+		event.begin();
+		long start = System.nanoTime();
+		try {
+			act.run();
+		} finally {
+			event.actTime = System.nanoTime() - start;
+			event.action = action;
+			event.locator = locator;
+			event.commit();
+		}
+	}
+
+	/** Time an operation that waits and then acts as one event with both
+	 * times; nested operations are folded into the outermost one
+	 *
+	 * @param action
+	 * @param locator
+	 * @param operation
+	 */
+	public static void action(String action, String locator, Runnable operation) {
+		ElementActionEvent event = new ElementActionEvent();
+		if (!event.isEnabled() || compound.get() != null) {
+			operation.run();
+			return;
+		}
+		event.action = action;
+		event.locator = locator;
+		event.begin();
+		compound.set(event);
+		try {
+			operation.run();
+		} finally {
+			compound.remove();
+			event.commit();
+		}
+	}
+
+	/** Time a page-object method
+	 *
+	 * @param page the page object
+	 * @param method
+	 * @param body
+	 * @return
+	 */
+	public static <T> T page(Object page, String method, Supplier<T> body) {
+		PageActionEvent event = new PageActionEvent();
+		if (!event.isEnabled()) {
+			return body.get();
+		}
+		event.page = page.getClass().getSimpleName();
+		event.method = method;
+		event.begin();
+		try {
+			return body.get();
+		} finally {
+			event.commit();
+		}
+	}
+
+	/** Time a page-object method without a result
+	 *
+	 * @param page the page object
+	 * @param method
+	 * @param body
+	 */
+	public static void page(Object page, String method, Runnable body) {
+		page(page, method, () -> {
+			body.run();
+			return null;
+		});
+	}
+}
@@ -0,0 +1,71 @@
+package com.bdd.utilities;
+
+import java.time.Duration;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Timeout per kind of browser action, read from config.properties.
+ *
+ * Each action has its own key (timeout.find, timeout.visibility, ...) that
+ * falls back to timeout.explicit, or to 30 seconds for page loads, network
+ * idle and the initial launch. Waits should take their timeout from
+ * {@link ScenarioDeadline#budget}, which caps it by what is left of the
+ * scenario budget.
+ *
+ */
+public final class Timeouts {
+
+	/**
+	 * Kinds of waits, each with its own configurable timeout.
+	 */
+	public enum Action {
+		FIND("timeout.find", false),
+		CLICK("timeout.click", false),
+		VISIBILITY("timeout.visibility", false),
+		TEXT("timeout.text", false),
+		PAGE_LOAD("timeout.pageLoad", true),
+		NETWORK_IDLE("timeout.networkIdle", true),
+		LAUNCH("timeout.launch", true);
+
+		private final String key;
+		private final boolean navigation;
+
+		Action(String key, boolean navigation) {
+			this.key = key;
+			this.navigation = navigation;
+		}
+
+		public String getKey() {
+			return key;
+		}
+	}
+
+	private static final Duration NAVIGATION_DEFAULT = Duration.ofSeconds(30);
+
+	private Timeouts() {
+		throw new IllegalStateException("Timeouts class cannot be instantiated.");
+	}
+
+	/** Configured timeout for an action, before the scenario deadline is applied
+	 *
+	 * @param action
+	 * @return
+	 */
+	public static Duration of(Action action) {
+		Config config = ConfigManager.get();
+		Duration fallback = action.navigation ? NAVIGATION_DEFAULT
+				: config.getDuration("timeout.explicit", Duration.ofSeconds(10));
+		return config.getDuration(action.key, fallback);
+	}
+
+	/** Apply timeout.implicit and the page-load timeout to a new browser
+	 *
+	 * @param driver
+	 */
+	public static void apply(WebDriver driver) {
+		Duration implicit = ConfigManager.get().getDuration("timeout.implicit", Duration.ZERO);
+		driver.manage().timeouts().implicitlyWait(implicit);
+		driver.manage().timeouts().pageLoadTimeout(of(Action.PAGE_LOAD));
+	}
+}
@@ -2,26 +2,18 @@ package com.bdd.utilities;
 
 import io.cucumber.java.Scenario;
 
-import org.openqa.selenium.By;
-import org.openqa.selenium.OutputType;
-import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.WebElement;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.edge.EdgeDriver;
 import org.openqa.selenium.edge.EdgeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
-import org.openqa.selenium.remote.RemoteWebDriver;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
-
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class WebDriverManager {
+	protected static Logger log = LoggerFactory.getLogger(WebDriverManager.class);
 	private static ThreadLocal<WebDriver> driverThreadLocal = new ThreadLocal<>();
 
 	private WebDriverManager() {
@@ -31,26 +23,52 @@ public class WebDriverManager {
 	public static WebDriver getDriver() {
 		WebDriver driver = driverThreadLocal.get();
 		if (driver == null) {
-	            String browserName = CommonUtils.getProperty("browser").toLowerCase(); 
-				switch (browserName) {
-				case "chrome":
-					driver = createChromeDriver();
-					break;
-				case "edge":
-					driver = createEdgeDriver();
-					break;
-				default:
-					throw new IllegalArgumentException("Unsupported browser: " + browserName);
-				}
+			driver = WebDriverPool.isEnabled() ? WebDriverPool.getInstance().borrow() : createDriver();
+			driverThreadLocal.set(driver);
+			NetworkBlocker.scenarioStarted(driver);
+			HarRecorder.scenarioStarted(driver);
+			prepareWindow(driver);
+		}
+		return driver;
+	}
 
-				driverThreadLocal.set(driver);
-				launchURL(driver);
-			
+	/** Create a new browser session for the configured browser
+	 * 
+	 * @return
+	 */
+	static WebDriver createDriver() {
+		String browserName = ConfigManager.get().getRequired("browser").toLowerCase();
+		BrowserProfile profile = BrowserProfile.fromConfig();
+		WebDriver driver;
+		switch (browserName) {
+		case "chrome":
+			driver = createChromeDriver(profile);
+			break;
+		case "edge":
+			driver = createEdgeDriver(profile);
+			break;
+		case "remote":
+			driver = createRemoteDriver(profile);
+			break;
+		default:
+			throw new IllegalArgumentException("Unsupported browser: " + browserName);
 		}
+		Timeouts.apply(driver);
+		NetworkBlocker.install(driver, profile);
+		HarRecorder.install(driver);
+		ReplayMode.afterStart(driver);
+		BrowserWaitEngine.installNetworkInstrumentation(driver);
+		PerformanceCollector.install(driver);
 		return driver;
 	}
 
-	private static WebDriver createChromeDriver() {
+	private static WebDriver createChromeDriver(BrowserProfile profile) {
+		//io.github.bonigarcia.wdm.WebDriverManager.chromedriver().setup();
+	
+		return new ChromeDriver(chromeOptions(profile));
+	}
+
+	private static ChromeOptions chromeOptions(BrowserProfile profile) {
 		ChromeOptions chromeOptions = new ChromeOptions();
 		chromeOptions.addArguments("--disable-notifications");
 		chromeOptions.addArguments("--disable-popup-blocking");
@@ -60,54 +78,92 @@ public class WebDriverManager {
 		chromeOptions.addArguments("--disable-translate");
 		chromeOptions.addArguments("--no-default-browser-check");
 		chromeOptions.addArguments("--incognito");
-
-		//io.github.bonigarcia.wdm.WebDriverManager.chromedriver().setup();
-	
-		return new ChromeDriver(chromeOptions);
+		profile.apply(chromeOptions);
+		ReplayMode.apply(chromeOptions);
+		ArtifactPipeline.apply(chromeOptions);
+		return chromeOptions;
 	}
 
 
 
-	private static WebDriver createEdgeDriver() {
-		EdgeOptions edgeOptions = new EdgeOptions();
-		edgeOptions.setCapability("acceptInsecureCerts", true);
-
+	private static WebDriver createEdgeDriver(BrowserProfile profile) {
 		//io.github.bonigarcia.wdm.WebDriverManager.edgedriver().setup();
-		return new EdgeDriver(edgeOptions);
+		return new EdgeDriver(edgeOptions(profile));
 	}
 
-	public static void launchURL(WebDriver driver) {
-		System.out.println("####################################");
-		System.out.println(CommonUtils.getProperty("argos_url"));
-		System.out.println("####################################");
-		driver.get(CommonUtils.getProperty("argos_url"));
-		driver.manage().window().maximize();
-		WebElement cookieAccept = driver.findElement(By.id("explicit-consent-prompt-accept"));
+	private static EdgeOptions edgeOptions(BrowserProfile profile) {
+		EdgeOptions edgeOptions = new EdgeOptions();
+		edgeOptions.setCapability("acceptInsecureCerts", true);
+		profile.apply(edgeOptions);
+		ReplayMode.apply(edgeOptions);
+		ArtifactPipeline.apply(edgeOptions);
+		return edgeOptions;
+	}
 
-		//WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(50));
-		//WebDriverWait wait = new WebDriverWait(driver, 50);
-		WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(50));
-		wait.until(ExpectedConditions.visibilityOf(cookieAccept));
+	/** Create a session on the Grid (grid.urls) for remote.browser, with the
+	 * same options the local browser would get
+	 *
+	 * @param profile
+	 * @return
+	 */
+	private static WebDriver createRemoteDriver(BrowserProfile profile) {
+		String remoteBrowser = ConfigManager.get().getString("remote.browser", "chrome").toLowerCase();
+		switch (remoteBrowser) {
+		case "chrome":
+			return RemoteGrid.createDriver(chromeOptions(profile));
+		case "edge":
+			return RemoteGrid.createDriver(edgeOptions(profile));
+		case "firefox":
+			FirefoxOptions firefoxOptions = new FirefoxOptions();
+			firefoxOptions.setAcceptInsecureCerts(true);
+			return RemoteGrid.createDriver(firefoxOptions);
+		default:
+			throw new IllegalArgumentException("Unsupported remote.browser: " + remoteBrowser);
+		}
+	}
 
-		wait.until(ExpectedConditions.elementToBeClickable(cookieAccept));
-		cookieAccept.click();
+	/** Size the window for the scenario. Nothing is loaded yet: the first
+	 * page a scenario opens goes through {@link Navigator#open}, which also
+	 * deals with the consent prompt.
+	 *
+	 * @param driver
+	 */
+	private static void prepareWindow(WebDriver driver) {
+		if (BrowserProfile.fromConfig().shouldMaximize()) {
+			driver.manage().window().maximize();
+		}
 	}
 
 	public static void quitDriver(Scenario scenario) {
 		WebDriver driver = driverThreadLocal.get();
 		try {
-			if (scenario.isFailed()) {
-
-				byte[] screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
-				scenario.attach(screenshot, "image/png", "Screenshot");
+			if (scenario.isFailed() && driver != null) {
+				ArtifactPipeline.captureFailure(driver, scenario);
 			}
-		} catch (Exception e) {
-			e.printStackTrace();
 		} finally {
-			// Close the WebDriver instance
 			if (driver != null) {
-				driver.quit();
-				driverThreadLocal.remove();
+				try {
+					String blocking = NetworkBlocker.scenarioFinished(driver, scenario.getName());
+					if (blocking != null) {
+						scenario.attach(blocking, "text/plain", "Network blocking");
+					}
+					String traffic = HarRecorder.scenarioFinished(driver);
+					if (traffic != null) {
+						scenario.attach(traffic, "text/plain", "Network by step");
+					}
+				} finally {
+					// Close the WebDriver instance, or hand it back when pooled
+					try {
+						if (WebDriverPool.isEnabled()) {
+							WebDriverPool.getInstance().release(driver);
+						} else {
+							RemoteGrid.sessionEnded(driver);
+							driver.quit();
+						}
+					} finally {
+						driverThreadLocal.remove();
+					}
+				}
 			}
 		}
 	}
@@ -0,0 +1,304 @@
+package com.bdd.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded pool of warm browsers that are reset and reused between scenarios.
+ *
+ * Browsers are launched in parallel when the pool is first used. A released
+ * browser has its cookies, storage and extra windows cleared before it goes
+ * back to the pool; it is replaced instead once it has served
+ * driver.pool.maxUses scenarios or stops responding.
+ *
+ * A failed launch is retried driver.pool.launchRetries times with a doubling
+ * driver.pool.launchRetryDelay. When no browser is left and none is being
+ * launched, borrow() fails straight away with the launch error instead of
+ * waiting out the borrow timeout.
+ *
+ * The runners shut the pool down after the suite; the statistics are
+ * written to target/driver-pool-stats.csv to size driver.pool.size.
+ *
+ */
+public final class WebDriverPool {
+
+	protected static Logger log = LoggerFactory.getLogger(WebDriverPool.class);
+
+	private static final File REPORT = new File("target/driver-pool-stats.csv");
+	private static final long BORROW_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+	private static volatile WebDriverPool instance;
+
+	private final int size;
+	private final int maxUses;
+	private final Duration borrowTimeout;
+	private final LinkedBlockingQueue<WebDriver> idle = new LinkedBlockingQueue<>();
+	private final Map<WebDriver, AtomicInteger> useCounts = new ConcurrentHashMap<>();
+	private final Set<WebDriver> leased = Collections.newSetFromMap(new ConcurrentHashMap<WebDriver, Boolean>());
+	private final int launchRetries;
+	private final Duration launchRetryDelay;
+	private final ExecutorService launcher;
+	private final AtomicInteger launching = new AtomicInteger();
+	private volatile RuntimeException launchFailure;
+	private final AtomicBoolean closed = new AtomicBoolean();
+
+	private final AtomicLong borrows = new AtomicLong();
+	private final AtomicLong reuses = new AtomicLong();
+	private final AtomicLong launched = new AtomicLong();
+	private final AtomicLong recycled = new AtomicLong();
+	private final AtomicLong totalWaitNanos = new AtomicLong();
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+
+	private WebDriverPool(Config config) {
+		this.size = Math.max(1, config.getInt("driver.pool.size", config.getInt("parallel.threads", 2)));
+		this.maxUses = Math.max(1, config.getInt("driver.pool.maxUses", 25));
+		this.borrowTimeout = config.getDuration("driver.pool.borrowTimeout", Duration.ofSeconds(120));
+		this.launchRetries = Math.max(0, config.getInt("driver.pool.launchRetries", 2));
+		this.launchRetryDelay = config.getDuration("driver.pool.launchRetryDelay", Duration.ofSeconds(2));
+		this.launcher = Executors.newFixedThreadPool(size, runnable -> {
+			Thread thread = new Thread(runnable, "driver-pool-launcher");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/** Get the shared pool, launching its browsers on first use
+	 *
+	 * @return
+	 */
+	public static WebDriverPool getInstance() {
+		WebDriverPool pool = instance;
+		if (pool == null) {
+			synchronized (WebDriverPool.class) {
+				pool = instance;
+				if (pool == null) {
+					pool = new WebDriverPool(ConfigManager.get());
+					pool.prewarm();
+					Runtime.getRuntime().addShutdownHook(new Thread(pool::shutdown, "driver-pool-shutdown"));
+					instance = pool;
+				}
+			}
+		}
+		return pool;
+	}
+
+	public static boolean isEnabled() {
+		return ConfigManager.get().getBoolean("driver.pool.enabled", false);
+	}
+
+	/** Shut the shared pool down if one was started; never starts one
+	 *
+	 */
+	public static void shutdownIfStarted() {
+		WebDriverPool pool;
+		synchronized (WebDriverPool.class) {
+			pool = instance;
+			instance = null;
+		}
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	private void prewarm() {
+		log.info("Launching {} pooled browsers", size);
+		for (int i = 0; i < size; i++) {
+			launchAsync();
+		}
+	}
+
+	private void launchAsync() {
+		launching.incrementAndGet();
+		launcher.submit(() -> {
+			try {
+				launch();
+			} finally {
+				launching.decrementAndGet();
+			}
+		});
+	}
+
+	private void launch() {
+		for (int attempt = 0; attempt <= launchRetries; attempt++) {
+			try {
+				WebDriver driver = WebDriverManager.createDriver();
+				useCounts.put(driver, new AtomicInteger());
+				launched.incrementAndGet();
+				idle.offer(driver);
+				return;
+			} catch (RuntimeException e) {
+				launchFailure = e;
+				if (attempt == launchRetries) {
+					log.error("Unable to launch pooled browser after {} attempts", attempt + 1, e);
+					return;
+				}
+				log.warn("Pooled browser launch failed (attempt {}/{}): {}", attempt + 1, launchRetries + 1,
+						e.getMessage());
+			}
+			try {
+				Thread.sleep(launchRetryDelay.toMillis() << attempt);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/** Borrow a browser, waiting for one to be released if all are in use
+	 *
+	 * @return
+	 */
+	public WebDriver borrow() {
+		long start = System.nanoTime();
+		long deadline = start + borrowTimeout.toNanos();
+		WebDriver driver = null;
+		try {
+			while (driver == null && System.nanoTime() < deadline) {
+				driver = idle.poll(Math.min(deadline - System.nanoTime(), BORROW_POLL_NANOS), TimeUnit.NANOSECONDS);
+				RuntimeException failure = launchFailure;
+				if (driver == null && failure != null && launching.get() == 0 && useCounts.isEmpty()) {
+					throw new IllegalStateException("No pooled browser is left and launching one failed", failure);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a pooled browser", e);
+		}
+		long waited = System.nanoTime() - start;
+		if (driver == null) {
+			throw new IllegalStateException("No pooled browser became available within " + borrowTimeout);
+		}
+		borrows.incrementAndGet();
+		totalWaitNanos.addAndGet(waited);
+		maxWaitNanos.accumulateAndGet(waited, Math::max);
+		if (useCounts.get(driver).getAndIncrement() > 0) {
+			reuses.incrementAndGet();
+		}
+		leased.add(driver);
+		log.debug("Borrowed pooled browser after {} ms", TimeUnit.NANOSECONDS.toMillis(waited));
+		return driver;
+	}
+
+	/** Return a browser to the pool, resetting or replacing it
+	 *
+	 * @param driver
+	 */
+	public void release(WebDriver driver) {
+		if (!leased.remove(driver)) {
+			return;
+		}
+		if (useCounts.get(driver).get() >= maxUses) {
+			log.info("Recycling pooled browser after {} uses", maxUses);
+			recycle(driver);
+			return;
+		}
+		try {
+			reset(driver);
+			idle.offer(driver);
+		} catch (RuntimeException e) {
+			log.warn("Pooled browser failed to reset, replacing it: {}", e.getMessage());
+			recycle(driver);
+		}
+	}
+
+	private void reset(WebDriver driver) {
+		List<String> handles = new ArrayList<>(driver.getWindowHandles());
+		String main = handles.get(0);
+		for (String handle : handles.subList(1, handles.size())) {
+			driver.switchTo().window(handle).close();
+		}
+		driver.switchTo().window(main);
+		((JavascriptExecutor) driver).executeScript(
+				"try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+		if (driver instanceof HasCdp) {
+			((HasCdp) driver).executeCdpCommand("Network.clearBrowserCookies", Collections.emptyMap());
+		} else {
+			driver.manage().deleteAllCookies();
+		}
+		driver.get("about:blank");
+	}
+
+	private void recycle(WebDriver driver) {
+		useCounts.remove(driver);
+		recycled.incrementAndGet();
+		RemoteGrid.sessionEnded(driver);
+		try {
+			driver.quit();
+		} catch (RuntimeException e) {
+			log.debug("Ignoring error while quitting recycled browser: {}", e.getMessage());
+		}
+		launchAsync();
+	}
+
+	/** Quit every browser, then log and write the pool statistics. Only the
+	 * first call does anything.
+	 *
+	 */
+	public void shutdown() {
+		if (!closed.compareAndSet(false, true)) {
+			return;
+		}
+		launcher.shutdownNow();
+		log.info(statistics());
+		writeReport();
+		List<WebDriver> all = new ArrayList<>(useCounts.keySet());
+		for (WebDriver driver : all) {
+			RemoteGrid.sessionEnded(driver);
+			try {
+				driver.quit();
+			} catch (RuntimeException e) {
+				log.debug("Ignoring error while quitting pooled browser: {}", e.getMessage());
+			}
+		}
+		useCounts.clear();
+		idle.clear();
+	}
+
+	private void writeReport() {
+		long count = borrows.get();
+		REPORT.getParentFile().mkdirs();
+		try (PrintWriter out = new PrintWriter(REPORT, StandardCharsets.UTF_8.name())) {
+			out.println("size,borrows,reuses,launched,recycled,avgBorrowWaitMs,maxBorrowWaitMs");
+			out.println(size + "," + count + "," + reuses.get() + "," + launched.get() + "," + recycled.get() + ","
+					+ (count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / count)) + ","
+					+ TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+		} catch (IOException e) {
+			log.warn("Unable to write {}: {}", REPORT, e.getMessage());
+		}
+	}
+
+	/** Summary used to size the pool: borrow waits, reuse and recycle counts
+	 *
+	 * @return
+	 */
+	public String statistics() {
+		long count = borrows.get();
+		long avgWaitMillis = count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / count);
+		return String.format(
+				"WebDriverPool size=%d borrows=%d reuses=%d launched=%d recycled=%d avgBorrowWait=%dms maxBorrowWait=%dms",
+				size, count, reuses.get(), launched.get(), recycled.get(), avgWaitMillis,
+				TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+	}
+}
@@ -0,0 +1,110 @@
+package com.bdd.utilities;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class LocatorRegistryTest {
+
+	@DataProvider
+	public Object[][] translatable() {
+		return new Object[][] {
+				{ "//button[@data-test='add-to-trolley-button-button']",
+						"button[data-test=\"add-to-trolley-button-button\"]" },
+				{ "//div/span", "div > span" },
+				{ "//div//span", "div span" },
+				{ "//*[@id='searchTerm']", "*[id=\"searchTerm\"]" },
+				{ "//select[@data-e2e='product-quantity']/option", "select[data-e2e=\"product-quantity\"] > option" },
+				{ "//div[@a='1'][@b=\"2\"]//span", "div[a=\"1\"][b=\"2\"] span" },
+				{ "//a[@title=\"it's\"]", "a[title=\"it's\"]" },
+				{ "//a[@title='say \"hi\"']", "a[title=\"say \\\"hi\\\"\"]" },
+				{ "//a[@title='back\\slash']", "a[title=\"back\\\\slash\"]" } };
+	}
+
+	@Test(dataProvider = "translatable")
+	public void translatesSimpleXPathToCss(String xpath, String css) {
+		assertEquals(LocatorRegistry.toCss(xpath), css);
+	}
+
+	@DataProvider
+	public Object[][] untranslatable() {
+		return new Object[][] { { null }, { "" }, { "/html/body" }, { "(//a)[2]" }, { "//a[2]" },
+				{ "//a[text()='Basket']" }, { "//a[contains(@class,'x')]" }, { "//a | //b" }, { "//div/.." },
+				{ "(//a[@data-e2e='product-name'])[2]/span" }, { "//a[@href]" }, { "//DIV[@id='x']" },
+				{ "//a[@id='x']extra" } };
+	}
+
+	@Test(dataProvider = "untranslatable")
+	public void keepsOtherXPathAsIs(String xpath) {
+		assertNull(LocatorRegistry.toCss(xpath));
+	}
+
+	@Test
+	public void parsesToCssOrXPathLocators() {
+		assertEquals(LocatorRegistry.xpath("//div[@data-test='title']"), By.cssSelector("div[data-test=\"title\"]"));
+		assertEquals(LocatorRegistry.xpath("//div[2]"), By.xpath("//div[2]"));
+		assertEquals(LocatorRegistry.optimize(By.xpath("//div/span")), By.cssSelector("div > span"));
+		assertEquals(LocatorRegistry.optimize(By.id("x")), By.id("x"));
+	}
+
+	@Test
+	public void timesEachLookupThroughTheLocator() {
+		String key = "//timed[@id='" + System.nanoTime() + "']";
+		SearchContext context = new SearchContext() {
+			@Override
+			public List<WebElement> findElements(By by) {
+				return Collections.emptyList();
+			}
+
+			@Override
+			public WebElement findElement(By by) {
+				throw new NoSuchElementException(by.toString());
+			}
+		};
+		By timed = LocatorRegistry.timed(key, By.id("x"));
+		timed.findElements(context);
+		try {
+			timed.findElement(context);
+		} catch (NoSuchElementException expected) {
+			// a failed lookup still costs a round trip
+		}
+		assertEquals(timed.toString(), By.id("x").toString());
+		boolean reported = false;
+		for (String line : LocatorRegistry.report()) {
+			if (line.startsWith("\"" + key.replace("\"", "\"\"") + "\"")) {
+				assertTrue(line.contains(",webdriver,") && line.contains(",2,"), line);
+				reported = true;
+			}
+		}
+		assertTrue(reported, "no statistics for " + key);
+	}
+
+	@Test
+	public void keepsPageAndWebDriverLookupsApart() {
+		String key = "//split[@id='" + System.nanoTime() + "']";
+		LocatorRegistry.record(key, LocatorRegistry.Source.PAGE, 100_000);
+		LocatorRegistry.record(key, LocatorRegistry.Source.PAGE, 200_000);
+		LocatorRegistry.record(key, LocatorRegistry.Source.WEBDRIVER, 30_000_000);
+		String page = null;
+		String webdriver = null;
+		for (String line : LocatorRegistry.report()) {
+			if (line.startsWith("\"" + key.replace("\"", "\"\"") + "\",page,")) {
+				page = line;
+			} else if (line.startsWith("\"" + key.replace("\"", "\"\"") + "\",webdriver,")) {
+				webdriver = line;
+			}
+		}
+		assertTrue(page != null && page.endsWith(",2,0.1,0.2"), String.valueOf(page));
+		assertTrue(webdriver != null && webdriver.endsWith(",1,30.0,30.0"), String.valueOf(webdriver));
+	}
+}
@@ -0,0 +1,13 @@
+@performance
+
+Feature: Page performance at Argos
+
+Scenario Outline: Verify the search results page renders within its budget
+  Given User opens the search results for "<productCategory>"
+  Then User verifies the search result page contains "<productCategory>"
+  And the "search results" page LCP is under "<lcp>"
+
+Examples:
+
+ |productCategory|lcp|
+ |Washing Machine|2.5s|
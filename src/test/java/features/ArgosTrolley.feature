@@ -0,0 +1,17 @@
+@regression
+
+Feature: Trolley at Argos
+
+# The search results and the trolley are opened by URL; this scenario never loads the home page
+Scenario Outline: Verify the trolley subtotal follows the selected quantity
+  Given User opens the search results for "<productCategory>"
+  And User adds the product to the trolley "<productname>"
+  When User opens the trolley
+  Then User sees the product in the trolley
+  And User increase the quantity by "<quantity>"
+  Then User validate the subtotal with unit price and "<quantity>"
+
+Examples:
+
+ |productCategory|productname|quantity|
+ |Washing Machine|samsung|2|
@@ -0,0 +1,65 @@
+package runner;
+
+
+import org.testng.ITestContext;
+import org.testng.annotations.AfterSuite;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+
+import com.bdd.utilities.ArtifactPipeline;
+import com.bdd.utilities.ConfigManager;
+import com.bdd.utilities.ConsentManager;
+import com.bdd.utilities.WebDriverPool;
+
+import io.cucumber.testng.AbstractTestNGCucumberTests;
+import io.cucumber.testng.CucumberOptions;
+
+/**
+ * Runs scenarios concurrently. The number of scenarios in flight is taken
+ * from parallel.threads (config.properties, or -Dparallel.threads=N).
+ *
+ * Every scenario runs on a single TestNG worker thread, so the ThreadLocal
+ * driver in WebDriverManager, the step definition instance and the page
+ * objects it creates are confined to that thread.
+ */
+@CucumberOptions(
+        features = "src/test/java/features",
+        glue = "com/bdd/stepdefinitions",
+        plugin = { "pretty", "html:target/cucumber-reports/cucumber.html","json:target/cucumber-reports/Cucumber.json","junit:target/cucumber-reports/Cucumber.xml",
+                "com.bdd.utilities.JfrStepListener" },
+        monochrome = false,
+        tags = "@sanity"
+        
+)
+public class ParallelTestRunner extends AbstractTestNGCucumberTests {
+
+	@BeforeClass(alwaysRun = true)
+	public void configureParallelism(ITestContext context) {
+		int threads = Math.max(1, ConfigManager.get().getInt("parallel.threads", 4));
+		context.getCurrentXmlTest().getSuite().setDataProviderThreadCount(threads);
+		if (WebDriverPool.isEnabled()) {
+			WebDriverPool.getInstance();
+		}
+	}
+
+	@AfterSuite(alwaysRun = true)
+	public void drainArtifacts() {
+		ArtifactPipeline.drain();
+	}
+
+	@AfterSuite(alwaysRun = true)
+	public void shutdownDriverPool() {
+		WebDriverPool.shutdownIfStarted();
+	}
+
+	@AfterSuite(alwaysRun = true)
+	public void reportConsentLaunches() {
+		ConsentManager.writeReport();
+	}
+
+	@Override
+	@DataProvider(parallel = true)
+	public Object[][] scenarios() {
+		return super.scenarios();
+	}
+}
@@ -0,0 +1,269 @@
+package runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bdd.utilities.ConfigManager;
+
+/**
+ * Per-scenario durations learned from earlier Cucumber.json reports.
+ *
+ * Scenarios are keyed by feature path and line, the same form a rerun file
+ * uses, with the scenario name kept as a fallback for when lines move. Each
+ * new report moves the estimate a third of the way towards the latest
+ * duration, so one slow run does not reshuffle every shard. The history is
+ * kept as CSV (shard.history) so CI can cache it between builds.
+ *
+ */
+public final class ScenarioTimingHistory {
+
+	protected static Logger log = LoggerFactory.getLogger(ScenarioTimingHistory.class);
+
+	private static final double WEIGHT = 1.0 / 3;
+
+	private final File file;
+	private final Map<String, Timing> timings = new TreeMap<>();
+
+	private ScenarioTimingHistory(File file) {
+		this.file = file;
+	}
+
+	/** Read the history file, or start an empty history when there is none
+	 *
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public static ScenarioTimingHistory load(File file) throws IOException {
+		ScenarioTimingHistory history = new ScenarioTimingHistory(file);
+		if (!file.isFile()) {
+			return history;
+		}
+		for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+			List<String> columns = splitCsv(line);
+			if (columns.size() < 4 || "scenario".equals(columns.get(0))) {
+				continue;
+			}
+			Timing timing = new Timing(columns.get(0), columns.get(1));
+			timing.samples = Integer.parseInt(columns.get(2));
+			timing.millis = Long.parseLong(columns.get(3));
+			history.timings.put(timing.key, timing);
+		}
+		return history;
+	}
+
+	/** Fold the scenario durations of a Cucumber.json report into the history
+	 *
+	 * @param report
+	 * @return number of scenarios read
+	 * @throws IOException
+	 */
+	@SuppressWarnings("unchecked")
+	public int merge(File report) throws IOException {
+		List<Map<String, Object>> features;
+		try (Reader reader = Files.newBufferedReader(report.toPath(), StandardCharsets.UTF_8)) {
+			features = new Json().toType(reader, List.class);
+		}
+		if (features == null) {
+			return 0;
+		}
+		int merged = 0;
+		for (Map<String, Object> feature : features) {
+			String uri = relativeUri(String.valueOf(feature.get("uri")));
+			long background = 0;
+			for (Map<String, Object> element : (List<Map<String, Object>>) feature.getOrDefault("elements",
+					Collections.emptyList())) {
+				long nanos = durationOf(element);
+				if ("background".equals(element.get("type"))) {
+					background = nanos;
+					continue;
+				}
+				record(uri + ":" + ((Number) element.get("line")).intValue(), String.valueOf(element.get("name")),
+						TimeUnit.NANOSECONDS.toMillis(background + nanos));
+				background = 0;
+				merged++;
+			}
+		}
+		return merged;
+	}
+
+	void record(String key, String name, long millis) {
+		Timing timing = timings.computeIfAbsent(key, k -> new Timing(k, name));
+		timing.name = name;
+		timing.millis = timing.samples == 0 ? millis : Math.round(timing.millis + WEIGHT * (millis - timing.millis));
+		timing.samples++;
+	}
+
+	/** Estimated duration of a scenario, by location first and then by name
+	 *
+	 * @param key feature path and line
+	 * @param name
+	 * @return the estimate, or -1 when the scenario has never run
+	 */
+	public long estimateMillis(String key, String name) {
+		Timing timing = timings.get(key);
+		if (timing != null) {
+			return timing.millis;
+		}
+		String feature = key.substring(0, key.lastIndexOf(':'));
+		for (Timing candidate : timings.values()) {
+			if (candidate.name.equals(name) && candidate.key.startsWith(feature + ":")) {
+				return candidate.millis;
+			}
+		}
+		return -1;
+	}
+
+	/** Median of all known durations, used for scenarios without history
+	 *
+	 * @return the median, or -1 for an empty history
+	 */
+	public long medianMillis() {
+		List<Long> all = new ArrayList<>();
+		for (Timing timing : timings.values()) {
+			all.add(timing.millis);
+		}
+		if (all.isEmpty()) {
+			return -1;
+		}
+		Collections.sort(all);
+		return all.get(all.size() / 2);
+	}
+
+	/** Duration assumed for a scenario that has never run: the median known
+	 * duration, or shard.defaultDuration for an empty history
+	 *
+	 * @return
+	 */
+	public long fallbackMillis() {
+		return timings.isEmpty()
+				? ConfigManager.get().getDuration("shard.defaultDuration", Duration.ofSeconds(60)).toMillis()
+				: medianMillis();
+	}
+
+	public boolean isEmpty() {
+		return timings.isEmpty();
+	}
+
+	public void save() throws IOException {
+		if (file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+		try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+			out.println("scenario,name,samples,averageMs");
+			for (Timing timing : timings.values()) {
+				out.println(timing.key + ",\"" + timing.name.replace("\"", "\"\"") + "\"," + timing.samples + ","
+						+ timing.millis);
+			}
+		}
+		log.info("Saved {} scenario timings to {}", timings.size(), file);
+	}
+
+	/** Merge every readable report into the history, skipping missing files
+	 *
+	 * @param reports
+	 * @throws IOException
+	 */
+	public void mergeAll(Collection<File> reports) throws IOException {
+		for (File report : reports) {
+			if (!report.isFile()) {
+				continue;
+			}
+			try {
+				log.info("Read {} scenario durations from {}", merge(report), report);
+			} catch (RuntimeException e) {
+				log.warn("Skipping unreadable report {}: {}", report, e.getMessage());
+			}
+		}
+	}
+
+	/** Feature path relative to the working directory, as rerun files expect
+	 *
+	 * @param uri
+	 * @return
+	 */
+	static String relativeUri(String uri) {
+		String path = uri;
+		if (uri.startsWith("file:")) {
+			path = uri.startsWith("file:/") ? Paths.get(URI.create(uri)).toString() : uri.substring("file:".length());
+		}
+		Path resolved = Paths.get(path);
+		if (resolved.isAbsolute()) {
+			Path workingDirectory = Paths.get(System.getProperty("user.dir")).toAbsolutePath();
+			if (resolved.startsWith(workingDirectory)) {
+				resolved = workingDirectory.relativize(resolved);
+			}
+		}
+		return resolved.toString().replace(File.separatorChar, '/');
+	}
+
+	@SuppressWarnings("unchecked")
+	private static long durationOf(Map<String, Object> element) {
+		long total = 0;
+		for (String phase : new String[] { "before", "steps", "after" }) {
+			for (Map<String, Object> step : (List<Map<String, Object>>) element.getOrDefault(phase,
+					Collections.emptyList())) {
+				Map<String, Object> result = (Map<String, Object>) step.get("result");
+				if (result != null && result.get("duration") instanceof Number) {
+					total += ((Number) result.get("duration")).longValue();
+				}
+			}
+		}
+		return total;
+	}
+
+	private static List<String> splitCsv(String line) {
+		List<String> columns = new ArrayList<>();
+		StringBuilder column = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (c == '"') {
+				if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					column.append('"');
+					i++;
+				} else {
+					quoted = !quoted;
+				}
+			} else if (c == ',' && !quoted) {
+				columns.add(column.toString());
+				column.setLength(0);
+			} else {
+				column.append(c);
+			}
+		}
+		columns.add(column.toString());
+		return columns;
+	}
+
+	private static final class Timing {
+		private final String key;
+		private String name;
+		private int samples;
+		private long millis;
+
+		Timing(String key, String name) {
+			this.key = key;
+			this.name = name;
+		}
+	}
+}
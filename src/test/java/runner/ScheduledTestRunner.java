@@ -0,0 +1,131 @@
+package runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.ITestContext;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterSuite;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.bdd.utilities.ArtifactPipeline;
+import com.bdd.utilities.ConfigManager;
+import com.bdd.utilities.ConsentManager;
+import com.bdd.utilities.WebDriverPool;
+
+import io.cucumber.testng.CucumberOptions;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import io.cucumber.testng.TestNGCucumberRunner;
+
+/**
+ * Runs scenarios concurrently on parallel.threads workers, longest expected
+ * scenario first, with idle workers stealing queued scenarios from busy
+ * ones (see {@link WorkStealingScheduler}).
+ *
+ * Expected durations come from the timing history shared with the shard
+ * planner (shard.history); new scenarios get the median known duration.
+ * Measured durations are written back after the run and per-worker
+ * utilization goes to target/scheduler-utilization.csv.
+ *
+ * The whole run is a single TestNG test that fails when any scenario fails;
+ * the Cucumber reports still have one entry per scenario.
+ */
+@CucumberOptions(
+        features = "src/test/java/features",
+        glue = "com/bdd/stepdefinitions",
+        plugin = { "pretty", "html:target/cucumber-reports/cucumber.html","json:target/cucumber-reports/Cucumber.json","junit:target/cucumber-reports/Cucumber.xml",
+                "com.bdd.utilities.JfrStepListener" },
+        monochrome = false,
+        tags = "@sanity"
+
+)
+public class ScheduledTestRunner {
+
+	protected static Logger log = LoggerFactory.getLogger(ScheduledTestRunner.class);
+
+	private static final File UTILIZATION = new File("target/scheduler-utilization.csv");
+
+	private TestNGCucumberRunner testNGCucumberRunner;
+
+	@BeforeClass(alwaysRun = true)
+	public void setUpClass(ITestContext context) {
+		testNGCucumberRunner = new TestNGCucumberRunner(getClass(), context.getCurrentXmlTest()::getParameter);
+		if (WebDriverPool.isEnabled()) {
+			WebDriverPool.getInstance();
+		}
+	}
+
+	@Test(groups = "cucumber", description = "Runs Cucumber Scenarios longest first on work-stealing workers")
+	public void runScenarios() throws InterruptedException, IOException {
+		List<Pickle> pickles = new ArrayList<>();
+		for (Object[] scenario : testNGCucumberRunner.provideScenarios()) {
+			pickles.add(((PickleWrapper) scenario[0]).getPickle());
+		}
+		ScenarioTimingHistory history = ScenarioTimingHistory.load(ShardPlanner.historyFile());
+		long fallback = history.fallbackMillis();
+		Map<Pickle, Long> estimates = new IdentityHashMap<>();
+		for (Pickle pickle : pickles) {
+			long known = history.estimateMillis(key(pickle), pickle.getName());
+			estimates.put(pickle, known >= 0 ? known : fallback);
+		}
+
+		int threads = Math.max(1, ConfigManager.get().getInt("parallel.threads", 4));
+		WorkStealingScheduler.Report<Pickle> report = new WorkStealingScheduler<Pickle>(threads, estimates::get)
+				.run(pickles, testNGCucumberRunner::runScenario);
+
+		List<String> failed = new ArrayList<>();
+		for (WorkStealingScheduler.Outcome<Pickle> outcome : report.outcomes) {
+			Pickle pickle = outcome.item;
+			history.record(key(pickle), pickle.getName(), TimeUnit.NANOSECONDS.toMillis(outcome.nanos));
+			if (outcome.failure != null && !(outcome.failure instanceof SkipException)) {
+				failed.add(key(pickle) + " " + pickle.getName() + ": " + outcome.failure);
+			}
+		}
+		history.save();
+		report.write(UTILIZATION);
+		log.info("Ran {} scenarios on {} workers in {} s, tail {} s", pickles.size(), report.workers.size(),
+				TimeUnit.NANOSECONDS.toSeconds(report.wallNanos), TimeUnit.NANOSECONDS.toSeconds(report.tailNanos()));
+		for (WorkStealingScheduler.WorkerStats stats : report.workers) {
+			log.info("{}", stats);
+		}
+		if (!failed.isEmpty()) {
+			throw new AssertionError(failed.size() + " scenario(s) failed:\n" + String.join("\n", failed));
+		}
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void tearDownClass() {
+		if (testNGCucumberRunner != null) {
+			testNGCucumberRunner.finish();
+		}
+	}
+
+	@AfterSuite(alwaysRun = true)
+	public void drainArtifacts() {
+		ArtifactPipeline.drain();
+	}
+
+	@AfterSuite(alwaysRun = true)
+	public void shutdownDriverPool() {
+		WebDriverPool.shutdownIfStarted();
+	}
+
+	@AfterSuite(alwaysRun = true)
+	public void reportConsentLaunches() {
+		ConsentManager.writeReport();
+	}
+
+	private static String key(Pickle pickle) {
+		return ScenarioTimingHistory.relativeUri(pickle.getUri().toString()) + ":" + pickle.getLine();
+	}
+}
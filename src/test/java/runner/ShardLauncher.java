@@ -0,0 +1,159 @@
+package runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bdd.utilities.ConfigManager;
+
+/**
+ * Runs the planned shards as parallel JVM forks on this machine.
+ *
+ * Usage, through the Sharded-cucumber-runner profile:
+ *
+ * mvn -P Sharded-cucumber-runner test-compile exec:exec -Dshard.count=4
+ *
+ * run (the default) plans shard.count shards, forks one TestNG JVM per
+ * non-empty shard running {@link ShardTestRunner}, waits for all of them and
+ * folds their Cucumber.json reports back into the timing history. Each fork
+ * logs to target/shards/shard-{index}.log and reports to
+ * target/cucumber-reports/shard-{index}. plan only writes the rerun files,
+ * for CI nodes that run one shard each; record merges the reports under
+ * target/cucumber-reports into the history after such a run.
+ *
+ */
+public final class ShardLauncher {
+
+	protected static Logger log = LoggerFactory.getLogger(ShardLauncher.class);
+
+	private static final long POLL_MILLIS = 200;
+
+	private ShardLauncher() {
+		throw new IllegalStateException("ShardLauncher class cannot be instantiated.");
+	}
+
+	public static void main(String[] args) throws Exception {
+		String mode = args.length > 0 ? args[0] : "run";
+		int count = Math.max(1, ConfigManager.get().getInt("shard.count", 2));
+		switch (mode) {
+		case "plan":
+			ShardPlanner.plan(count);
+			break;
+		case "record":
+			record(0);
+			break;
+		case "run":
+			System.exit(run(count));
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown mode " + mode + ", expected run, plan or record");
+		}
+	}
+
+	private static int run(int count) throws IOException, InterruptedException {
+		List<ShardPlanner.Shard> shards = ShardPlanner.plan(count);
+		long startedAt = System.currentTimeMillis();
+		long start = System.nanoTime();
+		List<Fork> forks = new ArrayList<>();
+		for (ShardPlanner.Shard shard : shards) {
+			if (shard.scenarios.isEmpty()) {
+				log.info("Shard {}/{} has no scenarios, not forking it", shard.index, count);
+				continue;
+			}
+			forks.add(new Fork(shard, start(shard)));
+		}
+		List<Fork> running = new ArrayList<>(forks);
+		while (!running.isEmpty()) {
+			for (Iterator<Fork> it = running.iterator(); it.hasNext();) {
+				Fork fork = it.next();
+				if (!fork.process.isAlive()) {
+					fork.millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+					log.info("Shard {}/{} finished with exit code {}: planned {} s, took {} s", fork.shard.index, count,
+							fork.process.exitValue(), fork.shard.plannedMillis / 1000, fork.millis / 1000);
+					it.remove();
+				}
+			}
+			Thread.sleep(POLL_MILLIS);
+		}
+		int failed = 0;
+		long slowest = 0;
+		long fastest = Long.MAX_VALUE;
+		for (Fork fork : forks) {
+			failed += fork.process.exitValue() == 0 ? 0 : 1;
+			slowest = Math.max(slowest, fork.millis);
+			fastest = Math.min(fastest, fork.millis);
+		}
+		if (!forks.isEmpty()) {
+			log.info("All shards finished in {} s, {} s between the first and the last", slowest / 1000,
+					(slowest - fastest) / 1000);
+		}
+		record(startedAt);
+		return failed == 0 ? 0 : 1;
+	}
+
+	private static Process start(ShardPlanner.Shard shard) throws IOException {
+		List<String> command = new ArrayList<>();
+		command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+		for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+			if ((argument.startsWith("-D") || argument.startsWith("-X")) && !argument.startsWith("-Dshard.index=")) {
+				command.add(argument);
+			}
+		}
+		command.add("-Dshard.index=" + shard.index);
+		command.add("-Dshard.count=" + shard.count);
+		for (Map.Entry<String, String> property : shard.cucumberProperties().entrySet()) {
+			command.add("-D" + property.getKey() + "=" + property.getValue());
+		}
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add("org.testng.TestNG");
+		command.add("-d");
+		command.add("target/surefire-reports/shard-" + shard.index);
+		command.add("-testclass");
+		command.add(ShardTestRunner.class.getName());
+		File output = new File(ShardPlanner.SHARD_DIR, "shard-" + shard.index + ".log");
+		log.info("Starting shard {}/{} ({} scenarios), output in {}", shard.index, shard.count,
+				shard.scenarios.size(), output);
+		return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(output).start();
+	}
+
+	/** Merge the main and per-shard Cucumber.json reports into the history
+	 *
+	 * @param since ignore reports last written before this time, in epoch millis
+	 * @throws IOException
+	 */
+	private static void record(long since) throws IOException {
+		List<File> reports = new ArrayList<>();
+		File reportDir = new File(ShardPlanner.REPORT_DIR);
+		reports.add(new File(reportDir, "Cucumber.json"));
+		File[] shardDirs = reportDir.listFiles(file -> file.isDirectory() && file.getName().startsWith("shard-"));
+		if (shardDirs != null) {
+			for (File shardDir : shardDirs) {
+				reports.add(new File(shardDir, "Cucumber.json"));
+			}
+		}
+		reports.removeIf(report -> report.lastModified() < since);
+		ScenarioTimingHistory history = ScenarioTimingHistory.load(ShardPlanner.historyFile());
+		history.mergeAll(reports);
+		history.save();
+	}
+
+	private static final class Fork {
+		private final ShardPlanner.Shard shard;
+		private final Process process;
+		private long millis;
+
+		Fork(ShardPlanner.Shard shard, Process process) {
+			this.shard = shard;
+			this.process = process;
+		}
+	}
+}
@@ -0,0 +1,349 @@
+package runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.StringJoiner;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bdd.utilities.Config;
+import com.bdd.utilities.ConfigManager;
+
+import io.cucumber.tagexpressions.Expression;
+import io.cucumber.tagexpressions.TagExpressionParser;
+
+/**
+ * Splits the scenarios selected by shard.tags into shard.count shards of
+ * roughly equal expected duration.
+ *
+ * Durations come from {@link ScenarioTimingHistory}. Scenarios without
+ * history are assumed to take the median known duration, or
+ * shard.defaultDuration when nothing has run yet. Scenarios are placed
+ * longest first, each onto the shard with the least planned time (LPT), and
+ * every example row of an outline is placed on its own. The plan is
+ * deterministic, so CI nodes that plan independently from the same history
+ * agree on who runs what.
+ *
+ * Each shard is written to target/shards/shard-{index}-of-{count}.txt in
+ * Cucumber rerun format, which {@link ShardTestRunner} selects from
+ * -Dshard.index and -Dshard.count.
+ *
+ */
+public final class ShardPlanner {
+
+	protected static Logger log = LoggerFactory.getLogger(ShardPlanner.class);
+
+	static final File SHARD_DIR = new File("target/shards");
+	static final String REPORT_DIR = "target/cucumber-reports";
+
+	private ShardPlanner() {
+		throw new IllegalStateException("ShardPlanner class cannot be instantiated.");
+	}
+
+	/** Plan shards from the configured features, tags and history and write
+	 * the rerun files
+	 *
+	 * @param count
+	 * @return the shards, in index order
+	 * @throws IOException
+	 */
+	public static List<Shard> plan(int count) throws IOException {
+		Config config = ConfigManager.get();
+		List<ScenarioRef> scenarios = discover(new File(config.getString("shard.features", "src/test/java/features")),
+				tags());
+		ScenarioTimingHistory history = ScenarioTimingHistory.load(historyFile());
+		long fallback = history.fallbackMillis();
+		for (ScenarioRef scenario : scenarios) {
+			long known = history.estimateMillis(scenario.getKey(), scenario.name);
+			scenario.estimateMillis = known >= 0 ? known : fallback;
+			scenario.estimated = known < 0;
+		}
+		List<Shard> shards = pack(scenarios, count);
+		write(shards);
+		return shards;
+	}
+
+	/** Longest processing time first onto the least loaded shard
+	 *
+	 * @param scenarios
+	 * @param count
+	 * @return
+	 */
+	static List<Shard> pack(List<ScenarioRef> scenarios, int count) {
+		List<ScenarioRef> ordered = new ArrayList<>(scenarios);
+		ordered.sort(Comparator.comparingLong((ScenarioRef s) -> s.estimateMillis).reversed()
+				.thenComparing(ScenarioRef::getKey));
+		List<Shard> shards = new ArrayList<>();
+		PriorityQueue<Shard> byLoad = new PriorityQueue<>(
+				Comparator.comparingLong((Shard s) -> s.plannedMillis).thenComparingInt(s -> s.scenarios.size())
+						.thenComparingInt(s -> s.index));
+		for (int i = 0; i < count; i++) {
+			Shard shard = new Shard(i, count);
+			shards.add(shard);
+			byLoad.add(shard);
+		}
+		for (ScenarioRef scenario : ordered) {
+			Shard lightest = byLoad.poll();
+			lightest.scenarios.add(scenario);
+			lightest.plannedMillis += scenario.estimateMillis;
+			byLoad.add(lightest);
+		}
+		return shards;
+	}
+
+	private static void write(List<Shard> shards) throws IOException {
+		SHARD_DIR.mkdirs();
+		try (PrintWriter plan = new PrintWriter(new File(SHARD_DIR, "plan.csv"), StandardCharsets.UTF_8.name())) {
+			plan.println("shard,scenario,name,estimateMs,estimated");
+			for (Shard shard : shards) {
+				Map<String, StringJoiner> lines = new LinkedHashMap<>();
+				for (ScenarioRef scenario : shard.scenarios) {
+					lines.computeIfAbsent(scenario.uri, uri -> new StringJoiner(":", uri + ":", ""))
+							.add(String.valueOf(scenario.line));
+					plan.println(shard.index + "," + scenario.getKey() + ",\"" + scenario.name.replace("\"", "\"\"")
+							+ "\"," + scenario.estimateMillis + "," + scenario.estimated);
+				}
+				List<String> rerun = new ArrayList<>();
+				for (StringJoiner line : lines.values()) {
+					rerun.add(line.toString());
+				}
+				Files.write(shard.getRerunFile().toPath(), rerun, StandardCharsets.UTF_8);
+				log.info("Shard {}/{}: {} scenarios, planned {} s", shard.index, shard.count, shard.scenarios.size(),
+						shard.plannedMillis / 1000);
+			}
+		}
+	}
+
+	/** Point Cucumber at this JVM's shard when -Dshard.index and -Dshard.count
+	 * are set and nobody chose the features already. Runs before Cucumber
+	 * reads its options, from the static initializer of ShardTestRunner.
+	 */
+	static void selectShard() {
+		String index = System.getProperty("shard.index");
+		if (index == null || System.getProperty("cucumber.features") != null) {
+			return;
+		}
+		int count = Integer.parseInt(System.getProperty("shard.count", "1"));
+		try {
+			Shard shard = plan(count).get(Integer.parseInt(index));
+			for (Map.Entry<String, String> property : shard.cucumberProperties().entrySet()) {
+				if (System.getProperty(property.getKey()) == null) {
+					System.setProperty(property.getKey(), property.getValue());
+				}
+			}
+			log.info("Running shard {}/{} with {} scenarios", shard.index, count, shard.scenarios.size());
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to plan shard " + index + " of " + count, e);
+		}
+	}
+
+	/** Whether this JVM was given a shard without scenarios. Cucumber would
+	 * read an empty rerun file as "no filter" and run everything.
+	 *
+	 * @return
+	 */
+	static boolean isEmptyShard() {
+		String features = System.getProperty("cucumber.features");
+		if (features == null || !features.startsWith("@")) {
+			return false;
+		}
+		File rerun = new File(features.substring(1));
+		return rerun.isFile() && rerun.length() == 0;
+	}
+
+	static String tags() {
+		return ConfigManager.get().getString("shard.tags", "@sanity");
+	}
+
+	static File historyFile() {
+		return new File(ConfigManager.get().getString("shard.history", SHARD_DIR + "/scenario-timings.csv"));
+	}
+
+	/** Scenarios, and outline example rows, in the feature files under root
+	 * whose tags match the expression
+	 *
+	 * @param root
+	 * @param tagExpression
+	 * @return
+	 * @throws IOException
+	 */
+	static List<ScenarioRef> discover(File root, String tagExpression) throws IOException {
+		Expression filter = tagExpression == null || tagExpression.trim().isEmpty() ? tags -> true
+				: TagExpressionParser.parse(tagExpression);
+		List<File> features = new ArrayList<>();
+		collectFeatures(root, features);
+		Collections.sort(features);
+		List<ScenarioRef> scenarios = new ArrayList<>();
+		for (File feature : features) {
+			for (ScenarioRef scenario : scan(feature)) {
+				if (filter.evaluate(scenario.tags)) {
+					scenarios.add(scenario);
+				}
+			}
+		}
+		return scenarios;
+	}
+
+	private static void collectFeatures(File file, List<File> features) {
+		if (file.isDirectory()) {
+			File[] children = file.listFiles();
+			if (children != null) {
+				for (File child : children) {
+					collectFeatures(child, features);
+				}
+			}
+		} else if (file.getName().endsWith(".feature")) {
+			features.add(file);
+		}
+	}
+
+	/**
+	 * Line-based reading of the Gherkin keywords that matter for planning:
+	 * tags, scenarios, outlines and their example rows.
+	 */
+	private static List<ScenarioRef> scan(File feature) throws IOException {
+		String uri = ScenarioTimingHistory.relativeUri(feature.getPath());
+		List<ScenarioRef> scenarios = new ArrayList<>();
+		List<String> pending = new ArrayList<>();
+		List<String> featureTags = new ArrayList<>();
+		List<String> ruleTags = new ArrayList<>();
+		List<String> outlineTags = null;
+		List<String> examplesTags = null;
+		String outlineName = null;
+		boolean header = false;
+		boolean docString = false;
+		List<String> lines = Files.readAllLines(feature.toPath(), StandardCharsets.UTF_8);
+		for (int i = 0; i < lines.size(); i++) {
+			String text = lines.get(i).trim();
+			if (text.startsWith("\"\"\"") || text.startsWith("```")) {
+				docString = !docString;
+				continue;
+			}
+			if (docString || text.isEmpty() || text.startsWith("#")) {
+				continue;
+			}
+			int line = i + 1;
+			if (text.startsWith("@")) {
+				for (String token : text.split("\\s+")) {
+					if (token.startsWith("#")) {
+						break;
+					}
+					pending.add(token);
+				}
+			} else if (text.startsWith("Feature:")) {
+				featureTags = take(pending);
+			} else if (text.startsWith("Rule:")) {
+				ruleTags = take(pending);
+				outlineName = null;
+			} else if (text.startsWith("Background:")) {
+				pending.clear();
+			} else if (text.startsWith("Scenario Outline:") || text.startsWith("Scenario Template:")) {
+				outlineTags = concat(featureTags, ruleTags, take(pending));
+				outlineName = text.substring(text.indexOf(':') + 1).trim();
+				examplesTags = null;
+			} else if (text.startsWith("Scenario:") || text.startsWith("Example:")) {
+				scenarios.add(new ScenarioRef(uri, line, text.substring(text.indexOf(':') + 1).trim(),
+						concat(featureTags, ruleTags, take(pending))));
+				outlineName = null;
+			} else if ((text.startsWith("Examples:") || text.startsWith("Scenarios:")) && outlineName != null) {
+				examplesTags = take(pending);
+				header = true;
+			} else if (text.startsWith("|") && examplesTags != null && outlineName != null) {
+				if (header) {
+					header = false;
+				} else {
+					scenarios.add(new ScenarioRef(uri, line, outlineName, concat(outlineTags, examplesTags)));
+				}
+			}
+		}
+		return scenarios;
+	}
+
+	private static List<String> take(List<String> pending) {
+		List<String> taken = new ArrayList<>(pending);
+		pending.clear();
+		return taken;
+	}
+
+	@SafeVarargs
+	private static List<String> concat(List<String>... groups) {
+		List<String> all = new ArrayList<>();
+		for (List<String> group : groups) {
+			all.addAll(group);
+		}
+		return all;
+	}
+
+	/**
+	 * One runnable unit: a scenario, or one example row of an outline.
+	 */
+	static final class ScenarioRef {
+		final String uri;
+		final int line;
+		final String name;
+		final List<String> tags;
+		long estimateMillis;
+		boolean estimated;
+
+		ScenarioRef(String uri, int line, String name, List<String> tags) {
+			this.uri = uri;
+			this.line = line;
+			this.name = name;
+			this.tags = tags;
+		}
+
+		String getKey() {
+			return uri + ":" + line;
+		}
+	}
+
+	/**
+	 * The scenarios planned for one shard and their total expected time.
+	 */
+	static final class Shard {
+		final int index;
+		final int count;
+		final List<ScenarioRef> scenarios = new ArrayList<>();
+		long plannedMillis;
+
+		Shard(int index, int count) {
+			this.index = index;
+			this.count = count;
+		}
+
+		File getRerunFile() {
+			return new File(SHARD_DIR, "shard-" + index + "-of-" + count + ".txt");
+		}
+
+		File getReportDir() {
+			return new File(REPORT_DIR, "shard-" + index);
+		}
+
+		/** Cucumber options that run exactly this shard and report into its own
+		 * directory
+		 *
+		 * @return
+		 */
+		Map<String, String> cucumberProperties() {
+			String reports = getReportDir().getPath().replace(File.separatorChar, '/');
+			Map<String, String> properties = new LinkedHashMap<>();
+			properties.put("cucumber.features", "@" + getRerunFile().getPath());
+			properties.put("cucumber.filter.tags", tags());
+			properties.put("cucumber.plugin", String.join(",", Arrays.asList("html:" + reports + "/cucumber.html",
+					"json:" + reports + "/Cucumber.json", "junit:" + reports + "/Cucumber.xml")));
+			return properties;
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package runner;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class ShardPlannerTest {
+
+	private static final String FEATURE = String.join("\n",
+			"@regression",
+			"Feature: Shopping",
+			"",
+			"Background:",
+			"  Given User navigates to Argos website",
+			"",
+			"# @commented Scenario: not a scenario",
+			"@sanity @smoke # trailing comment",
+			"Scenario: Plain scenario",
+			"  Given a table",
+			"    | not | an example |",
+			"  And a doc string",
+			"    \"\"\"",
+			"    Scenario: inside a doc string",
+			"    \"\"\"",
+			"",
+			"@sanity",
+			"Scenario Outline: Outline <row>",
+			"  Given row <row>",
+			"",
+			"  Examples:",
+			"    | row |",
+			"    | 1   |",
+			"    | 2   |",
+			"",
+			"  @wip",
+			"  Examples: unfinished",
+			"    | row |",
+			"    | 3   |",
+			"",
+			"Rule: returns",
+			"",
+			"  @sanity",
+			"  Example: Rule example",
+			"    Given something",
+			"");
+
+	private File root;
+
+	@BeforeClass
+	public void writeFeature() throws IOException {
+		root = Files.createTempDirectory("shard-planner").toFile();
+		File nested = new File(root, "nested");
+		nested.mkdirs();
+		Files.write(new File(nested, "Shopping.feature").toPath(), FEATURE.getBytes(StandardCharsets.UTF_8));
+		Files.write(new File(root, "notes.txt").toPath(), "Scenario: ignored".getBytes(StandardCharsets.UTF_8));
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void deleteFeature() throws IOException {
+		new File(root, "nested/Shopping.feature").delete();
+		new File(root, "nested").delete();
+		new File(root, "notes.txt").delete();
+		root.delete();
+	}
+
+	@Test
+	public void discoversScenariosAndOutlineRowsWithTheirLines() throws IOException {
+		List<ShardPlanner.ScenarioRef> scenarios = ShardPlanner.discover(root, null);
+		List<Integer> lines = new ArrayList<>();
+		for (ShardPlanner.ScenarioRef scenario : scenarios) {
+			lines.add(scenario.line);
+		}
+		assertEquals(lines, Arrays.asList(9, 23, 24, 29, 34));
+		assertEquals(scenarios.get(0).name, "Plain scenario");
+		assertEquals(scenarios.get(0).tags, Arrays.asList("@regression", "@sanity", "@smoke"));
+		assertEquals(scenarios.get(1).name, "Outline <row>");
+		assertEquals(scenarios.get(1).tags, Arrays.asList("@regression", "@sanity"));
+		assertEquals(scenarios.get(3).tags, Arrays.asList("@regression", "@sanity", "@wip"));
+		assertEquals(scenarios.get(4).name, "Rule example");
+		assertTrue(scenarios.get(0).getKey().endsWith("nested/Shopping.feature:9"), scenarios.get(0).getKey());
+	}
+
+	@Test
+	public void filtersByTagExpression() throws IOException {
+		List<Integer> lines = new ArrayList<>();
+		for (ShardPlanner.ScenarioRef scenario : ShardPlanner.discover(root, "@sanity and not @wip")) {
+			lines.add(scenario.line);
+		}
+		assertEquals(lines, Arrays.asList(9, 23, 24, 34));
+		assertEquals(ShardPlanner.discover(root, "@smoke").size(), 1);
+	}
+
+	@Test
+	public void packsLongestFirstOntoTheLightestShard() {
+		List<ShardPlanner.Shard> shards = ShardPlanner.pack(scenarios(50, 40, 30, 30, 20, 10, 10, 10), 3);
+		assertEquals(plannedMillis(shards), Arrays.asList(70L, 70L, 60L));
+		assertEquals(millisOf(shards.get(0)), Arrays.asList(50L, 10L, 10L));
+		assertEquals(millisOf(shards.get(1)), Arrays.asList(40L, 20L, 10L));
+		assertEquals(millisOf(shards.get(2)), Arrays.asList(30L, 30L));
+	}
+
+	@Test
+	public void keepsEveryShardWithinOneScenarioOfTheOthers() {
+		long[] durations = new long[40];
+		for (int i = 0; i < durations.length; i++) {
+			durations[i] = (i * 7919L) % 97 + 1;
+		}
+		List<ShardPlanner.ScenarioRef> scenarios = scenarios(durations);
+		List<ShardPlanner.Shard> shards = ShardPlanner.pack(scenarios, 4);
+		int assigned = 0;
+		long total = 0;
+		for (ShardPlanner.Shard shard : shards) {
+			assigned += shard.scenarios.size();
+			total += shard.plannedMillis;
+		}
+		assertEquals(assigned, scenarios.size());
+		assertEquals(total, Arrays.stream(durations).sum());
+		List<Long> loads = plannedMillis(shards);
+		assertTrue(Collections.max(loads) - Collections.min(loads) <= Arrays.stream(durations).max().getAsLong(),
+				loads.toString());
+	}
+
+	@Test
+	public void spreadsScenariosWithoutEstimatesEvenly() {
+		List<ShardPlanner.Shard> shards = ShardPlanner.pack(scenarios(0, 0, 0, 0, 0, 0, 0), 3);
+		assertEquals(shards.get(0).scenarios.size(), 3);
+		assertEquals(shards.get(1).scenarios.size(), 2);
+		assertEquals(shards.get(2).scenarios.size(), 2);
+	}
+
+	@Test
+	public void leavesSurplusShardsEmpty() {
+		List<ShardPlanner.Shard> shards = ShardPlanner.pack(scenarios(5, 3), 4);
+		assertEquals(shards.size(), 4);
+		assertEquals(plannedMillis(shards), Arrays.asList(5L, 3L, 0L, 0L));
+		assertTrue(shards.get(3).scenarios.isEmpty());
+	}
+
+	private static List<ShardPlanner.ScenarioRef> scenarios(long... durations) {
+		List<ShardPlanner.ScenarioRef> scenarios = new ArrayList<>();
+		for (int i = 0; i < durations.length; i++) {
+			ShardPlanner.ScenarioRef scenario = new ShardPlanner.ScenarioRef("features/Test.feature", 10 + i,
+					"scenario " + i, Collections.<String>emptyList());
+			scenario.estimateMillis = durations[i];
+			scenarios.add(scenario);
+		}
+		return scenarios;
+	}
+
+	private static List<Long> plannedMillis(List<ShardPlanner.Shard> shards) {
+		List<Long> loads = new ArrayList<>();
+		for (ShardPlanner.Shard shard : shards) {
+			loads.add(shard.plannedMillis);
+		}
+		return loads;
+	}
+
+	private static List<Long> millisOf(ShardPlanner.Shard shard) {
+		List<Long> millis = new ArrayList<>();
+		for (ShardPlanner.ScenarioRef scenario : shard.scenarios) {
+			millis.add(scenario.estimateMillis);
+		}
+		return millis;
+	}
+}
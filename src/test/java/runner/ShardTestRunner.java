@@ -0,0 +1,57 @@
+package runner;
+
+import org.testng.annotations.AfterSuite;
+import org.testng.annotations.DataProvider;
+
+import com.bdd.utilities.ArtifactPipeline;
+import com.bdd.utilities.ConsentManager;
+import com.bdd.utilities.WebDriverPool;
+
+import io.cucumber.testng.AbstractTestNGCucumberTests;
+import io.cucumber.testng.CucumberOptions;
+
+/**
+ * Runs one shard planned by {@link ShardPlanner}, chosen with
+ * -Dshard.index=N -Dshard.count=M. Reports go to
+ * target/cucumber-reports/shard-N so that shards never overwrite each other;
+ * they are added through cucumber.plugin, which is why no report plugin is
+ * declared here.
+ */
+@CucumberOptions(
+        features = "src/test/java/features",
+        glue = "com/bdd/stepdefinitions",
+        plugin = { "pretty", "com.bdd.utilities.JfrStepListener" },
+        monochrome = false,
+        tags = "@sanity"
+
+)
+public class ShardTestRunner extends AbstractTestNGCucumberTests {
+
+	static {
+		ShardPlanner.selectShard();
+	}
+
+	@AfterSuite(alwaysRun = true)
+	public void drainArtifacts() {
+		ArtifactPipeline.drain();
+	}
+
+	@AfterSuite(alwaysRun = true)
+	public void shutdownDriverPool() {
+		WebDriverPool.shutdownIfStarted();
+	}
+
+	@AfterSuite(alwaysRun = true)
+	public void reportConsentLaunches() {
+		ConsentManager.writeReport();
+	}
+
+	@Override
+	@DataProvider
+	public Object[][] scenarios() {
+		if (ShardPlanner.isEmptyShard()) {
+			return new Object[0][];
+		}
+		return super.scenarios();
+	}
+}
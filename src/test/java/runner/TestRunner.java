@@ -1,5 +1,10 @@
 package runner;
 
+import org.testng.annotations.AfterSuite;
+
+import com.bdd.utilities.ArtifactPipeline;
+import com.bdd.utilities.ConsentManager;
+import com.bdd.utilities.WebDriverPool;
 
 import io.cucumber.testng.AbstractTestNGCucumberTests;
 import io.cucumber.testng.CucumberOptions;
@@ -7,12 +12,26 @@ import io.cucumber.testng.CucumberOptions;
 @CucumberOptions(
         features = "src/test/java/features",
         glue = "com/bdd/stepdefinitions",
-        plugin = { "pretty", "html:target/cucumber-reports/cucumber.html","json:target/cucumber-reports/Cucumber.json","junit:target/cucumber-reports/Cucumber.xml" },
+        plugin = { "pretty", "html:target/cucumber-reports/cucumber.html","json:target/cucumber-reports/Cucumber.json","junit:target/cucumber-reports/Cucumber.xml",
+                "com.bdd.utilities.JfrStepListener" },
         monochrome = false,
         tags = "@sanity"
         
 )
 public class TestRunner extends AbstractTestNGCucumberTests {
 
+	@AfterSuite(alwaysRun = true)
+	public void drainArtifacts() {
+		ArtifactPipeline.drain();
+	}
+
+	@AfterSuite(alwaysRun = true)
+	public void shutdownDriverPool() {
+		WebDriverPool.shutdownIfStarted();
+	}
 
+	@AfterSuite(alwaysRun = true)
+	public void reportConsentLaunches() {
+		ConsentManager.writeReport();
+	}
 }
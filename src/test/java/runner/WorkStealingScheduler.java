@@ -0,0 +1,279 @@
+package runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs items on a fixed set of worker threads, longest expected first.
+ *
+ * Items are sorted by expected duration and dealt onto one deque per worker,
+ * each onto the deque with the least expected work. A worker takes from the
+ * head of its own deque, so it starts on its longest item. Once its deque is
+ * empty it steals from the tail of the deque that still has the most
+ * expected work, so wrong estimates are evened out with the short items and
+ * no worker sits idle while others still have work queued.
+ *
+ * Busy and idle time per worker are returned in a {@link Report} and can be
+ * written to CSV.
+ *
+ */
+final class WorkStealingScheduler<T> {
+
+	protected static Logger log = LoggerFactory.getLogger(WorkStealingScheduler.class);
+
+	private final int workers;
+	private final ToLongFunction<T> estimate;
+
+	WorkStealingScheduler(int workers, ToLongFunction<T> estimate) {
+		this.workers = Math.max(1, workers);
+		this.estimate = estimate;
+	}
+
+	/** Run every item and wait for all of them
+	 *
+	 * @param items
+	 * @param action called once per item on a worker thread
+	 * @return per-item outcomes and per-worker utilization
+	 * @throws InterruptedException
+	 */
+	Report<T> run(List<T> items, Consumer<T> action) throws InterruptedException {
+		List<Worker> pool = new ArrayList<>();
+		for (int i = 0; i < Math.min(workers, Math.max(1, items.size())); i++) {
+			pool.add(new Worker(i));
+		}
+		List<T> ordered = new ArrayList<>(items);
+		ordered.sort(Comparator.comparingLong(estimate).reversed());
+		for (T item : ordered) {
+			Worker lightest = Collections.min(pool, Comparator.comparingLong((Worker w) -> w.queuedMillis));
+			lightest.queue.addLast(item);
+			lightest.queuedMillis += estimate.applyAsLong(item);
+		}
+
+		List<Outcome<T>> outcomes = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch done = new CountDownLatch(pool.size());
+		long start = System.nanoTime();
+		for (Worker worker : pool) {
+			Thread thread = new Thread(() -> {
+				try {
+					worker.work(pool, action, outcomes, start);
+				} finally {
+					done.countDown();
+				}
+			}, "scenario-worker-" + worker.index);
+			thread.start();
+		}
+		done.await();
+		long wallNanos = System.nanoTime() - start;
+		List<WorkerStats> stats = new ArrayList<>();
+		for (Worker worker : pool) {
+			stats.add(new WorkerStats(worker.index, worker.completed, worker.stolen, worker.busyNanos, wallNanos,
+					worker.finishedNanos));
+		}
+		return new Report<>(outcomes, stats, wallNanos);
+	}
+
+	/**
+	 * One worker with its own deque. The deque is guarded by its own monitor,
+	 * so the owner and a thief never take the same item.
+	 */
+	private final class Worker {
+		private final int index;
+		private final Deque<T> queue = new LinkedList<>();
+		private long queuedMillis;
+		private int completed;
+		private int stolen;
+		private long busyNanos;
+		private long finishedNanos;
+
+		Worker(int index) {
+			this.index = index;
+		}
+
+		void work(List<Worker> pool, Consumer<T> action, List<Outcome<T>> outcomes, long runStart) {
+			while (true) {
+				T item = takeOwn();
+				boolean steal = item == null;
+				if (steal) {
+					item = steal(pool);
+				}
+				if (item == null) {
+					finishedNanos = System.nanoTime() - runStart;
+					return;
+				}
+				if (steal) {
+					stolen++;
+				}
+				long start = System.nanoTime();
+				Throwable failure = null;
+				try {
+					action.accept(item);
+				} catch (Throwable t) {
+					failure = t;
+				}
+				long nanos = System.nanoTime() - start;
+				busyNanos += nanos;
+				completed++;
+				outcomes.add(new Outcome<>(item, index, steal, nanos, failure));
+			}
+		}
+
+		private T takeOwn() {
+			synchronized (queue) {
+				T item = queue.pollFirst();
+				if (item != null) {
+					queuedMillis -= estimate.applyAsLong(item);
+				}
+				return item;
+			}
+		}
+
+		private T stealLast() {
+			synchronized (queue) {
+				T item = queue.pollLast();
+				if (item != null) {
+					queuedMillis -= estimate.applyAsLong(item);
+				}
+				return item;
+			}
+		}
+
+		private long remaining() {
+			synchronized (queue) {
+				return queue.isEmpty() ? -1 : queuedMillis;
+			}
+		}
+
+		private T steal(List<Worker> pool) {
+			while (true) {
+				Worker victim = null;
+				long most = -1;
+				for (Worker other : pool) {
+					long remaining = other == this ? -1 : other.remaining();
+					if (remaining > most) {
+						most = remaining;
+						victim = other;
+					}
+				}
+				if (victim == null) {
+					return null;
+				}
+				T item = victim.stealLast();
+				if (item != null) {
+					return item;
+				}
+			}
+		}
+	}
+
+	/**
+	 * How one item went: which worker ran it, whether it was stolen, how long
+	 * it took and what it threw, if anything.
+	 */
+	static final class Outcome<T> {
+		final T item;
+		final int worker;
+		final boolean stolen;
+		final long nanos;
+		final Throwable failure;
+
+		Outcome(T item, int worker, boolean stolen, long nanos, Throwable failure) {
+			this.item = item;
+			this.worker = worker;
+			this.stolen = stolen;
+			this.nanos = nanos;
+			this.failure = failure;
+		}
+	}
+
+	/**
+	 * Busy time of one worker against the wall time of the whole run.
+	 */
+	static final class WorkerStats {
+		final int worker;
+		final int completed;
+		final int stolen;
+		final long busyNanos;
+		final long wallNanos;
+		final long finishedNanos;
+
+		WorkerStats(int worker, int completed, int stolen, long busyNanos, long wallNanos, long finishedNanos) {
+			this.worker = worker;
+			this.completed = completed;
+			this.stolen = stolen;
+			this.busyNanos = busyNanos;
+			this.wallNanos = wallNanos;
+			this.finishedNanos = finishedNanos;
+		}
+
+		double utilization() {
+			return wallNanos == 0 ? 0 : 100.0 * busyNanos / wallNanos;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("worker %d: %d items (%d stolen), busy %d s, idle at %d s, utilization %.1f%%",
+					worker, completed, stolen, TimeUnit.NANOSECONDS.toSeconds(busyNanos),
+					TimeUnit.NANOSECONDS.toSeconds(finishedNanos), utilization());
+		}
+	}
+
+	/**
+	 * Outcomes of a run and the utilization of its workers.
+	 */
+	static final class Report<T> {
+		final List<Outcome<T>> outcomes;
+		final List<WorkerStats> workers;
+		final long wallNanos;
+
+		Report(List<Outcome<T>> outcomes, List<WorkerStats> workers, long wallNanos) {
+			this.outcomes = outcomes;
+			this.workers = workers;
+			this.wallNanos = wallNanos;
+		}
+
+		/** Time between the first worker running out of work and the last
+		 * one finishing
+		 *
+		 * @return
+		 */
+		long tailNanos() {
+			long first = Long.MAX_VALUE;
+			long last = 0;
+			for (WorkerStats stats : workers) {
+				first = Math.min(first, stats.finishedNanos);
+				last = Math.max(last, stats.finishedNanos);
+			}
+			return workers.isEmpty() ? 0 : last - first;
+		}
+
+		void write(File csv) throws IOException {
+			if (csv.getParentFile() != null) {
+				csv.getParentFile().mkdirs();
+			}
+			try (PrintWriter out = new PrintWriter(csv, StandardCharsets.UTF_8.name())) {
+				out.println("worker,items,stolen,busyMs,idleAtMs,wallMs,utilizationPct");
+				for (WorkerStats stats : workers) {
+					out.println(String.format("%d,%d,%d,%d,%d,%d,%.1f", stats.worker, stats.completed, stats.stolen,
+							TimeUnit.NANOSECONDS.toMillis(stats.busyNanos),
+							TimeUnit.NANOSECONDS.toMillis(stats.finishedNanos),
+							TimeUnit.NANOSECONDS.toMillis(stats.wallNanos), stats.utilization()));
+				}
+			}
+		}
+	}
+}